@@ -8,6 +8,8 @@ import java.util.stream.Collectors;
 public class ATSAppMain {
     public static void main(String[] args) {
         ATSService atsService = new ATSService();
+        // Service messages are written asynchronously; flush them before printing here
+        EventLog events = atsService.getEventLog();
 
         // 1. Post some jobs
         System.out.println("--- Posting Jobs ---");
@@ -17,6 +19,7 @@ public class ATSAppMain {
         atsService.postJob(marketingJob);
 
         // 2. Add different types of applicants (Polymorphism)
+        events.flush();
         System.out.println("\n--- Adding Applicants ---");
         Applicant techApp1 = new TechApplicant("Alice", "alice@example.com", 5, 
                                             List.of("Java", "Spring", "SQL", "Cloud"), "Backend Development");
@@ -33,6 +36,7 @@ public class ATSAppMain {
         atsService.addApplicant(nonTechApp2);
         
         // 3. Accept applications
+        events.flush();
         System.out.println("\n--- Accepting Applications ---");
         atsService.acceptApplication(techApp1, softwareJob);
         atsService.acceptApplication(nonTechApp2, softwareJob);
@@ -41,6 +45,7 @@ public class ATSAppMain {
         atsService.acceptApplication(nonTechApp1, softwareJob); // Bob applies for a tech job
 
         // 4. Advance stages
+        events.flush();
         System.out.println("\n--- Advancing Application Stages ---");
         // Find Charlie's application ID to advance it
         List<Application> charlieApps = atsService.rankByScore(softwareJob.getJobId());
@@ -61,6 +66,7 @@ public class ATSAppMain {
         // 6. Demonstrate rankings
         System.out.println("\n--- Ranking Candidates for Software Engineer Job ---");
         List<Application> rankedSoftwareCandidates = atsService.rankByScore(softwareJob.getJobId());
+        events.flush();
         rankedSoftwareCandidates.forEach(app -> {
             System.out.printf("  - %s (Score: %d, Stage: %s)\n", 
                               app.getApplicant().getName(), 
@@ -71,12 +77,15 @@ public class ATSAppMain {
         // 7. Demonstrate Method Overloading
         System.out.println("\n--- Demonstrating Method Overloading ---");
         List<Applicant> skilledApplicants = atsService.searchApplicants("Java");
+        events.flush();
         System.out.println("Applicants with 'Java' skill: " + skilledApplicants.stream().map(Applicant::getName).collect(Collectors.toList()));
         
         List<Applicant> experiencedApplicants = atsService.searchApplicants(5);
+        events.flush();
         System.out.println("Applicants with >= 5 years of experience: " + experiencedApplicants.stream().map(Applicant::getName).collect(Collectors.toList()));
 
         List<Applicant> keywordApplicants = atsService.searchApplicants("dav", "name");
+        events.flush();
         System.out.println("Applicants with 'dav' in their name: " + keywordApplicants.stream().map(Applicant::getName).collect(Collectors.toList()));
     }
 }
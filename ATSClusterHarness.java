@@ -0,0 +1,157 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Runs a whole {@link ShardedATSService} cluster in one JVM with in-process shards and
+ * checks it against a single ATSService fed the same data. Halfway through the load a
+ * shard is added, so the checks also cover rebalancing.
+ *
+ * Usage: ATSClusterHarness [shards] [applicants] [jobs]  (defaults 4, 20000, 200).
+ * Exits with status 1 if the cluster and the single service disagree.
+ */
+public class ATSClusterHarness {
+    private static final long SEED = 20240611L;
+
+    public static void main(String[] args) throws Exception {
+        int shardCount = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int applicantCount = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        int jobCount = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        // The services report every call; keep that out of the harness output
+        EventLog events = new EventLog(EventSink.of(System.out));
+        events.setQuiet(true);
+        ATSService single = new ATSService(events);
+        List<ShardTransport> transports = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            transports.add(new InProcessShardTransport("shard-" + i, new ATSService(events)));
+        }
+
+        List<String> failures = new ArrayList<>();
+        try (ShardedATSService cluster = new ShardedATSService(transports, events)) {
+            SyntheticDataset dataset = new SyntheticDataset(SEED);
+            Random random = new Random(SEED);
+            List<Job> jobs = new ArrayList<>();
+            for (int i = 0; i < jobCount; i++) {
+                Job job = dataset.nextJob();
+                jobs.add(job);
+                single.postJob(job);
+                cluster.postJob(job);
+            }
+
+            long start = System.nanoTime();
+            load(single, cluster, dataset, random, jobs, applicantCount / 2);
+            long moveStart = System.nanoTime();
+            int moved = cluster.addShard(new InProcessShardTransport("shard-" + shardCount, new ATSService(events)));
+            long moveMs = (System.nanoTime() - moveStart) / 1_000_000;
+            load(single, cluster, dataset, random, jobs, applicantCount - applicantCount / 2);
+            long loadMs = (System.nanoTime() - start) / 1_000_000 - moveMs;
+
+            System.out.println("Loaded " + applicantCount + " applicants and " + jobCount + " jobs into "
+                               + shardCount + " shards in " + loadMs + " ms");
+            System.out.println("Added shard-" + shardCount + ": moved " + moved + " of " + jobCount + " jobs in " + moveMs + " ms");
+            StringBuilder spread = new StringBuilder("Jobs per shard:");
+            for (ShardTransport shard : cluster.getShards()) {
+                spread.append(' ').append(shard.getName()).append('=').append(shard.jobIds().size());
+            }
+            System.out.println(spread);
+
+            long searchNanos = 0;
+            int searches = 0;
+            for (int i = 0; i < 20; i++) {
+                String skill = dataset.nextSkill();
+                int years = dataset.nextInt(12);
+                ApplicantQuery query = new ApplicantQuery().withSkill(skill).minYears(years).techOnly();
+                long searchStart = System.nanoTime();
+                List<Applicant> bySkill = cluster.searchApplicants(skill);
+                List<Applicant> byYears = cluster.searchApplicants(years);
+                List<Applicant> byQuery = cluster.searchApplicants(query);
+                searchNanos += System.nanoTime() - searchStart;
+                searches += 3;
+                compareApplicants(failures, "skill " + skill, single.searchApplicants(skill), bySkill);
+                compareApplicants(failures, "years >= " + years, single.searchApplicants(years), byYears);
+                compareApplicants(failures, query.toString(), single.searchApplicants(query), byQuery);
+            }
+            System.out.println("Scatter-gather searches: " + searchNanos / 1000 / searches + " us on average");
+
+            for (Job job : jobs) {
+                compareApplications(failures, "ranking of " + job.getJobId(),
+                                    single.rankByScore(job.getJobId()), cluster.rankByScore(job.getJobId()));
+            }
+            List<Application> singleTop = new ArrayList<>();
+            for (Job job : jobs) {
+                singleTop.addAll(single.topK(job.getJobId(), 50));
+            }
+            singleTop.sort(ShardedATSService.RANK_ORDER);
+            compareApplications(failures, "top 50 across jobs",
+                                singleTop.subList(0, Math.min(50, singleTop.size())), cluster.topK(50));
+        } finally {
+            events.close();
+        }
+
+        if (failures.isEmpty()) {
+            System.out.println("Cluster matches the single service.");
+        } else {
+            failures.forEach(failure -> System.out.println("FAILED: " + failure));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Feeds the same applicants, applications and stage changes to both services.
+     */
+    private static void load(ATSService single, ShardedATSService cluster, SyntheticDataset dataset, Random random,
+                             List<Job> jobs, int applicants) {
+        for (int i = 0; i < applicants; i++) {
+            Applicant applicant = dataset.nextApplicant();
+            single.addApplicant(applicant);
+            cluster.addApplicant(applicant);
+            int applications = 1 + random.nextInt(3);
+            for (int a = 0; a < applications; a++) {
+                Job job = jobs.get(random.nextInt(jobs.size()));
+                single.acceptApplication(applicant, job);
+                cluster.acceptApplication(applicant, job);
+            }
+            if (i % 10 == 0) {
+                // Move the same-ranked candidate of a job along in both
+                String jobId = jobs.get(random.nextInt(jobs.size())).getJobId();
+                List<Application> singleRanking = single.rankByScore(jobId);
+                List<Application> clusterRanking = cluster.rankByScore(jobId);
+                if (!singleRanking.isEmpty() && singleRanking.size() == clusterRanking.size()) {
+                    int pick = random.nextInt(singleRanking.size());
+                    single.advanceStage(singleRanking.get(pick).getApplicationId(), "Interview");
+                    cluster.advanceStage(clusterRanking.get(pick).getApplicationId(), "Interview");
+                }
+            }
+        }
+    }
+
+    private static void compareApplicants(List<String> failures, String what, List<Applicant> expected, List<Applicant> actual) {
+        List<Long> expectedIds = new ArrayList<>();
+        expected.forEach(applicant -> expectedIds.add(applicant.getId()));
+        List<Long> actualIds = new ArrayList<>();
+        actual.forEach(applicant -> actualIds.add(applicant.getId()));
+        if (!expectedIds.equals(actualIds)) {
+            failures.add(what + ": expected " + expectedIds.size() + " applicants but got " + actualIds.size());
+        }
+    }
+
+    /**
+     * Applications differ in id between the services, so compare who, how good and how far.
+     */
+    private static void compareApplications(List<String> failures, String what, List<Application> expected,
+                                            List<Application> actual) {
+        if (!describe(expected).equals(describe(actual))) {
+            failures.add(what + " differs");
+        }
+    }
+
+    private static List<String> describe(List<Application> applications) {
+        List<String> lines = new ArrayList<>(applications.size());
+        for (Application application : applications) {
+            lines.add(application.getApplicant().getApplicantId() + "/" + application.getJob().getJobId() + "/"
+                      + application.getScore() + "/" + application.getStage());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,96 @@
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Measures heap used per applicant by an ATSService holding its applicants on the heap and
+ * by one keeping them in a {@link MappedApplicantStore}, loaded with the same applicants.
+ * Both figures include the search indexes, email registrations and scoring features the
+ * service keeps per applicant. Run it like ATSAppMain; pass the number of applicants as
+ * the first argument (default 1,000,000) and give the JVM enough heap for the on-heap
+ * service, e.g. -Xmx4g.
+ */
+public class ATSFootprintHarness {
+    private static final String[] SKILLS = {"Java", "Spring", "SQL", "Cloud", "Python", "Data Science",
+                                            "Machine Learning", "Project Management", "Strategy", "Budgeting"};
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        EventLog events = new EventLog(lines -> { });
+        events.setQuiet(true);
+
+        long before = usedHeap();
+        ATSService onHeap = new ATSService(events);
+        for (int i = 0; i < count; i++) {
+            onHeap.addApplicant(newApplicant(i));
+        }
+        long onHeapBytes = usedHeap() - before;
+        Reference.reachabilityFence(onHeap);
+        System.out.printf("ATSService, applicants on the heap: %d applicants, %.1f bytes per applicant%n",
+                          count, (double) onHeapBytes / count);
+        onHeap = null;
+
+        Path directory = Files.createTempDirectory("ats-mapped-store");
+        try {
+            before = usedHeap();
+            try (MappedApplicantStore store = MappedApplicantStore.open(directory)) {
+                ATSService mapped = new ATSService(events, store);
+                for (int i = 0; i < count; i++) {
+                    mapped.addApplicant(newApplicant(i));
+                }
+                long mappedBytes = usedHeap() - before;
+                Reference.reachabilityFence(mapped);
+                System.out.printf("ATSService over a mapped store:     %d applicants, %.1f bytes per applicant%n",
+                                  store.size(), (double) mappedBytes / count);
+
+                long javaSkills = 0;
+                long start = System.nanoTime();
+                MappedApplicantStore.ApplicantView view = store.view();
+                for (int ordinal = 0; ordinal < store.size(); ordinal++) {
+                    if (view.moveTo(ordinal).getYearsOfExperience() >= 5 && view.hasSkill("Java")) {
+                        javaSkills++;
+                    }
+                }
+                System.out.printf("Scan for Java with 5+ years through the view: %d matches in %.1f ms%n",
+                                  javaSkills, (System.nanoTime() - start) / 1_000_000.0);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+            events.close();
+        }
+    }
+
+    /**
+     * Builds an applicant the way an import would: every record gets its own skill strings.
+     */
+    private static Applicant newApplicant(int i) {
+        List<String> skills = new ArrayList<>(3);
+        for (int s = 0; s < 3; s++) {
+            skills.add(new String(SKILLS[(i * 7 + s * 3) % SKILLS.length]));
+        }
+        if (i % 2 == 0) {
+            return new TechApplicant("Candidate " + i, "candidate" + i + "@example.com", i % 20, skills, "Backend Development");
+        }
+        return new NonTechApplicant("Candidate " + i, "candidate" + i + "@example.com", i % 20, skills, "Business");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
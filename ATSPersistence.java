@@ -0,0 +1,490 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persists ATSService state in a data directory as a write-ahead log plus periodic snapshots.
+ *
+ * Every mutation is appended to the log as a binary record, and so is every entry of the
+ * stage history, which snapshots carry as well. Every
+ * {@link #SNAPSHOT_EVERY_RECORDS} records the log is rotated to a new segment and a
+ * snapshot of the full state is written in the background; older segments and snapshots
+ * are then deleted. Snapshots are taken while writes continue, so replaying the records
+ * that follow one is idempotent. On startup the latest snapshot is loaded and the log
+ * segments after it are replayed.
+ */
+public class ATSPersistence implements AutoCloseable {
+    public static final long SNAPSHOT_EVERY_RECORDS = 100_000;
+
+    private static final byte POST_JOB = 1;
+    private static final byte ADD_APPLICANT = 2;
+    private static final byte ACCEPT_APPLICATION = 3;
+    private static final byte ADVANCE_STAGE = 4;
+    private static final byte SET_SCORE = 5;
+    private static final byte UPDATE_APPLICANT = 6;
+    private static final byte UPDATE_JOB = 7;
+    private static final byte STAGE_TRANSITION = 8;
+
+    private static final byte BASE_APPLICANT = 0;
+    private static final byte TECH_APPLICANT = 1;
+    private static final byte NON_TECH_APPLICANT = 2;
+
+    private Path directory;
+    private ATSService service;
+    private WriteAheadLog log;
+    private boolean durableWrites;
+    private long openedAtNanos;
+    private long recoveryNanos;
+    private long recordsReplayed;
+    private AtomicLong recordsSinceSnapshot;
+    private AtomicLong snapshotsWritten;
+    private AtomicBoolean snapshotRunning;
+    private ExecutorService snapshotExecutor;
+    // Applicants and jobs met inline in replayed records, by id
+    private Map<Long, Applicant> replayedApplicants;
+    private Map<Long, Job> replayedJobs;
+
+    private ATSPersistence(Path directory, ATSService service, boolean durableWrites) {
+        this.directory = directory;
+        this.service = service;
+        this.durableWrites = durableWrites;
+        this.recordsSinceSnapshot = new AtomicLong();
+        this.snapshotsWritten = new AtomicLong();
+        this.snapshotRunning = new AtomicBoolean();
+        this.snapshotExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ats-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.replayedApplicants = new HashMap<>();
+        this.replayedJobs = new HashMap<>();
+    }
+
+    /**
+     * Recovers the service from a data directory and starts logging to it.
+     * @param directory The data directory; created if missing.
+     * @param service An empty service to load the state into.
+     * @param durableWrites Whether writers wait for their record to be forced to disk.
+     * @return The persistence layer, ready to log.
+     */
+    public static ATSPersistence open(Path directory, ATSService service, boolean durableWrites) throws IOException {
+        Files.createDirectories(directory);
+        ATSPersistence persistence = new ATSPersistence(directory, service, durableWrites);
+        long nextSegment = persistence.recover();
+        persistence.log = new WriteAheadLog(directory, nextSegment);
+        persistence.openedAtNanos = System.nanoTime();
+        return persistence;
+    }
+
+    // --- Logging ---
+
+    public long logPostJob(Job job) {
+        return append(POST_JOB, out -> writeJob(out, job));
+    }
+
+    public long logAddApplicant(Applicant applicant) {
+        return append(ADD_APPLICANT, out -> writeApplicant(out, applicant));
+    }
+
+    /**
+     * Logs a new application. The applicant and job are written inline, so the record can be
+     * replayed even if it lands in the log ahead of the applicant's own ADD record.
+     */
+    public long logAcceptApplication(Application application) {
+        return append(ACCEPT_APPLICATION, out -> writeApplication(out, application));
+    }
+
+    public long logAdvanceStage(Application application) {
+        return append(ADVANCE_STAGE, out -> {
+            out.writeLong(application.getId());
+            out.writeByte(application.getPipelineStage().ordinal());
+        });
+    }
+
+    public long logSetScore(Application application) {
+        return append(SET_SCORE, out -> {
+            out.writeLong(application.getId());
+            out.writeInt(application.getScore());
+            out.writeUTF(application.getRemarks());
+        });
+    }
+
+    public long logUpdateApplicant(Applicant applicant) {
+        return append(UPDATE_APPLICANT, out -> {
+            out.writeLong(applicant.getId());
+            out.writeUTF(applicant.getName());
+            out.writeUTF(applicant.getEmail());
+        });
+    }
+
+    public long logUpdateJob(Job job) {
+        return append(UPDATE_JOB, out -> {
+            out.writeLong(job.getId());
+            out.writeUTF(job.getTitle());
+            out.writeUTF(job.getDepartment());
+        });
+    }
+
+    public long logStageTransition(StageTransition transition) {
+        return append(STAGE_TRANSITION, out -> writeTransition(out, transition));
+    }
+
+    /**
+     * Waits for a logged record to reach disk, if durable writes are enabled.
+     * Call this after releasing any locks, so the wait does not hold up other writers.
+     * @param seq The sequence number returned when the record was logged.
+     */
+    public void awaitDurable(long seq) {
+        if (durableWrites) {
+            log.awaitDurable(seq);
+        }
+    }
+
+    /**
+     * Rotates the log and writes a snapshot of the current state, then deletes
+     * the segments and snapshots it replaces.
+     */
+    public synchronized void checkpoint() throws IOException {
+        long segment = log.rotate();
+        Path tmp = directory.resolve(snapshotFileName(segment) + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            List<ByteBuffer> frames = new ArrayList<>();
+            for (Job job : service.postedJobs()) {
+                frames.add(WriteAheadLog.frame(POST_JOB, encode(out -> writeJob(out, job))));
+                flushFrames(channel, frames, false);
+            }
+            for (Applicant applicant : service.indexedApplicants()) {
+                frames.add(WriteAheadLog.frame(ADD_APPLICANT, encode(out -> writeApplicant(out, applicant))));
+                flushFrames(channel, frames, false);
+            }
+            for (long jobId : service.jobIds()) {
+                for (Application application : service.applicationsForJob(jobId)) {
+                    frames.add(WriteAheadLog.frame(ACCEPT_APPLICATION, encode(out -> writeApplication(out, application))));
+                    flushFrames(channel, frames, false);
+                }
+            }
+            // The history after the applications, so replay finds their jobs
+            try {
+                service.getStageHistory().forEachTransition(transition -> {
+                    frames.add(WriteAheadLog.frame(STAGE_TRANSITION, encode(out -> writeTransition(out, transition))));
+                    try {
+                        flushFrames(channel, frames, false);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            flushFrames(channel, frames, true);
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(snapshotFileName(segment)), StandardCopyOption.ATOMIC_MOVE);
+        snapshotsWritten.incrementAndGet();
+
+        for (Map.Entry<Long, Path> old : listFiles("wal-", ".log").headMap(segment).entrySet()) {
+            Files.deleteIfExists(old.getValue());
+        }
+        for (Map.Entry<Long, Path> old : listFiles("snapshot-", ".bin").headMap(segment).entrySet()) {
+            Files.deleteIfExists(old.getValue());
+        }
+    }
+
+    public PersistenceStats getStats() {
+        return new PersistenceStats(recoveryNanos, recordsReplayed, log.getRecordsWritten(), log.getBytesWritten(),
+                                    log.getCommitBatches(), snapshotsWritten.get(), System.nanoTime() - openedAtNanos);
+    }
+
+    @Override
+    public void close() throws IOException {
+        snapshotExecutor.shutdown();
+        try {
+            snapshotExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+    }
+
+    private long append(byte type, Encoder encoder) {
+        long seq = log.append(type, encode(encoder));
+        if (recordsSinceSnapshot.incrementAndGet() >= SNAPSHOT_EVERY_RECORDS && snapshotRunning.compareAndSet(false, true)) {
+            recordsSinceSnapshot.set(0);
+            snapshotExecutor.execute(() -> {
+                try {
+                    checkpoint();
+                } catch (IOException e) {
+                    service.getEventLog().log(EventType.SNAPSHOT_FAILED, String.valueOf(e.getMessage()));
+                } finally {
+                    snapshotRunning.set(false);
+                }
+            });
+        }
+        return seq;
+    }
+
+    // --- Recovery ---
+
+    /**
+     * Loads the latest snapshot and replays the log segments that follow it.
+     * @return The number of the segment new records should go to.
+     */
+    private long recover() throws IOException {
+        long start = System.nanoTime();
+        TreeMap<Long, Path> snapshots = listFiles("snapshot-", ".bin");
+        TreeMap<Long, Path> segments = listFiles("wal-", ".log");
+        long firstSegment = 0;
+        if (!snapshots.isEmpty()) {
+            firstSegment = snapshots.lastKey();
+            recordsReplayed += WriteAheadLog.readSegment(snapshots.lastEntry().getValue(), this::replay);
+        }
+        for (Path segment : segments.tailMap(firstSegment).values()) {
+            recordsReplayed += WriteAheadLog.readSegment(segment, this::replay);
+        }
+        replayedApplicants.clear();
+        replayedJobs.clear();
+        recoveryNanos = System.nanoTime() - start;
+        // Never append to a segment that may end in a torn record
+        long lastSegment = segments.isEmpty() ? firstSegment - 1 : Math.max(segments.lastKey(), firstSegment - 1);
+        return lastSegment + 1;
+    }
+
+    private void replay(byte type, byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        switch (type) {
+            case POST_JOB: {
+                Job job = resolveJob(readJob(in));
+                if (service.findJob(job.getId()) == null) {
+                    service.restoreJob(job);
+                }
+                break;
+            }
+            case ADD_APPLICANT: {
+                Applicant applicant = resolveApplicant(readApplicant(in));
+                service.restoreApplicant(applicant);
+                break;
+            }
+            case ACCEPT_APPLICATION: {
+                long applicationId = in.readLong();
+                Applicant applicant = resolveApplicant(readApplicant(in));
+                Job job = resolveJob(readJob(in));
+                Stage stage = Stage.values()[in.readByte()];
+                int score = in.readInt();
+                String remarks = in.readUTF();
+                if (service.findApplication(applicationId) == null) {
+                    service.restoreApplication(new Application(applicationId, applicant, job, stage, score, remarks));
+                }
+                break;
+            }
+            case ADVANCE_STAGE:
+                service.restoreStage(in.readLong(), Stage.values()[in.readByte()]);
+                break;
+            case SET_SCORE:
+                service.restoreScore(in.readLong(), in.readInt(), in.readUTF());
+                break;
+            case UPDATE_APPLICANT:
+                service.restoreApplicantUpdate(in.readLong(), in.readUTF(), in.readUTF());
+                break;
+            case UPDATE_JOB: {
+                Job job = resolveJob(in.readLong());
+                String title = in.readUTF();
+                String department = in.readUTF();
+                if (job != null) {
+                    job.setTitle(title);
+                    job.setDepartment(department);
+                }
+                break;
+            }
+            case STAGE_TRANSITION:
+                service.restoreStageTransition(readTransition(in));
+                break;
+            default:
+                throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    /**
+     * Returns the one Applicant object for an id, so every record about an applicant
+     * refers to the same instance.
+     */
+    private Applicant resolveApplicant(Applicant decoded) {
+        Applicant existing = service.findApplicant(decoded.getId());
+        if (existing != null) {
+            return existing;
+        }
+        return replayedApplicants.computeIfAbsent(decoded.getId(), id -> decoded);
+    }
+
+    private Job resolveJob(Job decoded) {
+        Job existing = resolveJob(decoded.getId());
+        return existing != null ? existing : replayedJobs.computeIfAbsent(decoded.getId(), id -> decoded);
+    }
+
+    private Job resolveJob(long jobId) {
+        Job existing = service.findJob(jobId);
+        return existing != null ? existing : replayedJobs.get(jobId);
+    }
+
+    // --- Encoding ---
+
+    private interface Encoder {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] encode(Encoder encoder) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            encoder.write(out);
+        } catch (IOException e) {
+            // Writing to memory cannot fail, except for strings over 64KB
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeJob(DataOutputStream out, Job job) throws IOException {
+        out.writeLong(job.getId());
+        out.writeUTF(job.getTitle());
+        out.writeUTF(job.getDepartment());
+        out.writeUTF(job.getLocation());
+        out.writeUTF(job.getStatus());
+    }
+
+    private static Job readJob(DataInputStream in) throws IOException {
+        return new Job(in.readLong(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+    }
+
+    /**
+     * Writes an applicant. Subclasses other than TechApplicant and NonTechApplicant are
+     * stored as plain applicants.
+     */
+    private static void writeApplicant(DataOutputStream out, Applicant applicant) throws IOException {
+        if (applicant instanceof TechApplicant) {
+            out.writeByte(TECH_APPLICANT);
+        } else if (applicant instanceof NonTechApplicant) {
+            out.writeByte(NON_TECH_APPLICANT);
+        } else {
+            out.writeByte(BASE_APPLICANT);
+        }
+        out.writeLong(applicant.getId());
+        out.writeUTF(applicant.getName());
+        out.writeUTF(applicant.getEmail());
+        out.writeInt(applicant.getYearsOfExperience());
+        out.writeInt(applicant.getSkills().size());
+        for (String skill : applicant.getSkills()) {
+            out.writeUTF(skill);
+        }
+        if (applicant instanceof TechApplicant) {
+            out.writeUTF(((TechApplicant) applicant).getSpecialty());
+        } else if (applicant instanceof NonTechApplicant) {
+            out.writeUTF(((NonTechApplicant) applicant).getFieldOfStudy());
+        }
+    }
+
+    private static Applicant readApplicant(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        long applicantId = in.readLong();
+        String name = in.readUTF();
+        String email = in.readUTF();
+        int years = in.readInt();
+        int skillCount = in.readInt();
+        List<String> skills = new ArrayList<>(skillCount);
+        for (int i = 0; i < skillCount; i++) {
+            skills.add(in.readUTF());
+        }
+        if (kind == TECH_APPLICANT) {
+            return new TechApplicant(applicantId, name, email, years, skills, in.readUTF());
+        } else if (kind == NON_TECH_APPLICANT) {
+            return new NonTechApplicant(applicantId, name, email, years, skills, in.readUTF());
+        }
+        return new Applicant(applicantId, name, email, years, skills);
+    }
+
+    private static void writeApplication(DataOutputStream out, Application application) throws IOException {
+        out.writeLong(application.getId());
+        writeApplicant(out, application.getApplicant());
+        writeJob(out, application.getJob());
+        out.writeByte(application.getPipelineStage().ordinal());
+        out.writeInt(application.getScore());
+        out.writeUTF(application.getRemarks());
+    }
+
+    private static void writeTransition(DataOutputStream out, StageTransition transition) throws IOException {
+        out.writeLong(transition.getApplicationId());
+        out.writeLong(transition.getJobId());
+        out.writeInt(transition.getSequence());
+        out.writeLong(transition.getTimestamp());
+        out.writeByte(transition.getFrom() != null ? transition.getFrom().ordinal() : -1);
+        out.writeByte(transition.getTo().ordinal());
+    }
+
+    private static StageTransition readTransition(DataInputStream in) throws IOException {
+        long applicationId = in.readLong();
+        long jobId = in.readLong();
+        int sequence = in.readInt();
+        long timestamp = in.readLong();
+        byte from = in.readByte();
+        Stage to = Stage.values()[in.readByte()];
+        return new StageTransition(applicationId, jobId, sequence, timestamp, from >= 0 ? Stage.values()[from] : null, to);
+    }
+
+    // --- Files ---
+
+    private static void flushFrames(FileChannel channel, List<ByteBuffer> frames, boolean force) throws IOException {
+        if (frames.size() < 1024 && !force) {
+            return;
+        }
+        ByteBuffer[] buffers = frames.toArray(new ByteBuffer[0]);
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+        frames.clear();
+    }
+
+    private static String snapshotFileName(long segment) {
+        return String.format("snapshot-%016d.bin", segment);
+    }
+
+    /**
+     * Lists the files in the data directory with a numbered name, keyed by their number.
+     */
+    private TreeMap<Long, Path> listFiles(String prefix, String suffix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    files.put(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())), file);
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        return files;
+    }
+}
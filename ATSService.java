@@ -1,22 +1,233 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * The core service class for the ATS. Manages jobs, applicants, and applications.
  * This class uses polymorphism, method overloading, and encapsulation.
+ *
+ * The service is safe to call from many threads. Writes for a job hold only that job's
+ * lock, so intake for different jobs never contends; the applicant search indexes share
+ * one read-write lock, so searches run in parallel with each other.
+ *
+ * A service created with {@link #open(Path)} persists every change to a data directory
+ * and recovers its state from there on the next start.
+ *
+ * Reports read from {@link #snapshot() snapshots}: multi-version, point-in-time views of
+ * the applications that take no job lock, so reporting never holds up intake.
+ *
+ * Progress messages go to an asynchronous {@link EventLog}, so no call formats strings
+ * or writes to the console while it holds a lock. Each public call is timed into the
+ * service's {@link ServiceMetrics}.
  */
 public class ATSService {
-    private List<Job> jobs;
-    private List<Applicant> applicants;
-    private List<Application> applications;
+    // Number of applications scored per parallel task and written back per lock acquisition
+    private static final int RESCORE_CHUNK_SIZE = 4096;
 
+    // Primary stores, keyed by id
+    private Map<Long, Job> jobsById;
+    // Empty when applicant data is kept in a MappedApplicantStore; ordinals find them there
+    private Map<Long, Applicant> applicantsById;
+    private Map<Long, Application> applicationsById;
+    // Per-job applications, leaderboard and stage pipeline, each guarded by its own lock
+    private Map<Long, JobState> jobStates;
+    // Applicants by ordinal (the order they were added); search indexes refer to these ordinals.
+    // Everything below is guarded by applicantIndexLock.
+    private ReadWriteLock applicantIndexLock;
+    private List<Applicant> applicantsByOrdinal;
+    private Map<Long, Integer> ordinalsByApplicantId;
+    // Each applicant's scoring inputs, compiled once when it is indexed
+    private List<ScoringEngine.ApplicantFeatures> featuresByOrdinal;
+    private SkillIndex skillIndex;
+    private ExperienceIndex experienceIndex;
+    private TrigramIndex nameIndex;
+    private TrigramIndex emailIndex;
+    private QueryPlanner queryPlanner;
+    private ScoringEngine scoringEngine;
+    private StageHistory stageHistory;
+    private DuplicateDetector duplicates;
+    // Every write to an application is also recorded here, under the lock of its job
+    private VersionedApplicationStore versions;
+    // Null unless applicant data is kept off-heap; applicantsByOrdinal then reads from it
+    private MappedApplicantStore applicantStore;
+    // Null for a purely in-memory service
+    private ATSPersistence persistence;
+    private EventLog events;
+    private ServiceMetrics metrics;
+
+    /**
+     * Creates an in-memory service that reports to the shared console event log.
+     */
     public ATSService() {
-        this.jobs = new ArrayList<>();
-        this.applicants = new ArrayList<>();
-        this.applications = new ArrayList<>();
+        this(EventLog.shared());
+    }
+
+    /**
+     * Creates an in-memory service that reports to the given event log.
+     * @param events The event log; the caller remains responsible for closing it.
+     */
+    public ATSService(EventLog events) {
+        this(events, Clock.systemUTC());
+    }
+
+    /**
+     * Creates an in-memory service that reports to the given event log and timestamps
+     * stage transitions with the given clock.
+     * @param events The event log; the caller remains responsible for closing it.
+     * @param clock The clock for the stage history, e.g. a fixed or offset clock in simulations.
+     */
+    public ATSService(EventLog events, Clock clock) {
+        this(events, clock, null);
+    }
+
+    /**
+     * Creates an in-memory service that keeps applicant data in a memory-mapped store
+     * instead of the heap. Only ordinals, the search indexes and compiled scoring features
+     * stay on the heap; an applicant is read back from the store when a search or lookup
+     * returns it, so those calls hand out fresh copies. Applicants already in the store
+     * are indexed first, so a reopened store brings them back. Applications still hold
+     * the applicant objects they were accepted with.
+     * @param events The event log; the caller remains responsible for closing it.
+     * @param applicantStore The store; the caller remains responsible for closing it.
+     */
+    public ATSService(EventLog events, MappedApplicantStore applicantStore) {
+        this(events, Clock.systemUTC(), applicantStore);
+    }
+
+    private ATSService(EventLog events, Clock clock, MappedApplicantStore applicantStore) {
+        this.events = events;
+        this.jobsById = new ConcurrentHashMap<>();
+        this.applicantsById = new ConcurrentHashMap<>();
+        this.applicationsById = new ConcurrentHashMap<>();
+        this.jobStates = new ConcurrentHashMap<>();
+        this.applicantIndexLock = new ReentrantReadWriteLock();
+        this.applicantStore = applicantStore;
+        this.applicantsByOrdinal = applicantStore != null ? applicantStore.asList() : new ArrayList<>();
+        this.ordinalsByApplicantId = new HashMap<>();
+        this.featuresByOrdinal = new ArrayList<>();
+        SkillDictionary skillDictionary = new SkillDictionary();
+        this.skillIndex = new SkillIndex(skillDictionary);
+        this.experienceIndex = new ExperienceIndex();
+        // Over a store, the keyword indexes read names and emails back instead of copying them
+        this.nameIndex = applicantStore != null ? new TrigramIndex(applicantStore::nameOf) : new TrigramIndex();
+        this.emailIndex = applicantStore != null ? new TrigramIndex(applicantStore::emailOf) : new TrigramIndex();
+        this.queryPlanner = new QueryPlanner(skillIndex, experienceIndex, nameIndex, emailIndex, applicantsByOrdinal,
+                                             applicantStore);
+        this.scoringEngine = new ScoringEngine(skillDictionary);
+        this.stageHistory = new StageHistory(clock);
+        this.duplicates = new DuplicateDetector(this::emailOf);
+        this.versions = new VersionedApplicationStore();
+        this.metrics = new ServiceMetrics();
+        registerGauges();
+        for (int ordinal = 0; ordinal < applicantsByOrdinal.size(); ordinal++) {
+            Applicant applicant = applicantsByOrdinal.get(ordinal);
+            // Copies read back from the store leave the allocator alone, so new ids skip these here
+            IdAllocator.APPLICANTS.advancePast(applicant.getId());
+            duplicates.registerEmail(applicant.getEmail(), applicant.getId());
+            indexOrdinal(ordinal, applicant);
+        }
+    }
+
+    private void registerGauges() {
+        metrics.registerGauge("ats_jobs", "", "Jobs posted.", () -> jobsById.size());
+        metrics.registerGauge("ats_applicants", "", "Applicants added.",
+                              () -> applicantStore != null ? applicantStore.size() : applicantsById.size());
+        metrics.registerGauge("ats_applications", "", "Applications accepted.", () -> applicationsById.size());
+        for (Stage stage : Stage.values()) {
+            metrics.registerGauge("ats_applications_in_stage", "stage=\"" + stage + "\"",
+                                  "Applications currently in each stage, across all jobs.", () -> {
+                long total = 0;
+                for (JobState state : jobStates.values()) {
+                    total += state.getPipeline().count(stage);
+                }
+                return total;
+            });
+        }
+        metrics.registerGauge("ats_stage_transitions", "", "Stage transitions recorded in the history.", () -> stageHistory.size());
+        metrics.registerGauge("ats_duplicates_rejected", "kind=\"applicant\"",
+                              "Intake rejected as a duplicate: an applicant with a registered email, or a repeat application.",
+                              () -> duplicates.getRejectedApplicants());
+        metrics.registerGauge("ats_duplicates_rejected", "kind=\"application\"", "", () -> duplicates.getRejectedApplications());
+        metrics.registerGauge("ats_open_snapshots", "", "Application snapshots not yet closed.", () -> versions.getOpenSnapshots());
+        metrics.registerGauge("ats_pending_events", "", "Events not yet written by the event log.", () -> events.getPending());
+        metrics.registerGauge("ats_objects_created", "type=\"job\"",
+                              "Entity objects created in this JVM, including restored ones.", Job::getJobCount);
+        metrics.registerGauge("ats_objects_created", "type=\"applicant\"", "", Applicant::getApplicantCount);
+        metrics.registerGauge("ats_objects_created", "type=\"application\"", "", Application::getApplicationCount);
+    }
+
+    /**
+     * Opens a service backed by a data directory, recovering any state saved there.
+     * Every change is written to a write-ahead log and each call returns only once
+     * its change is on disk.
+     * @param dataDirectory The directory holding the log and snapshots.
+     * @return The recovered service.
+     * @throws IOException if the saved state cannot be read.
+     */
+    public static ATSService open(Path dataDirectory) throws IOException {
+        ATSService service = new ATSService();
+        service.persistence = ATSPersistence.open(dataDirectory, service, true);
+        service.events.log(EventType.RECOVERED, service.persistence.getStats());
+        return service;
+    }
+
+    /**
+     * Writes a snapshot of the current state and trims the log behind it.
+     * Does nothing for an in-memory service.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public void checkpoint() throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (persistence != null) {
+                persistence.checkpoint();
+            }
+        } finally {
+            metrics.record(ServiceOperation.CHECKPOINT, start);
+        }
+    }
+
+    /**
+     * Returns recovery and log throughput figures, or null for an in-memory service.
+     */
+    public PersistenceStats getPersistenceStats() {
+        return persistence != null ? persistence.getStats() : null;
+    }
+
+    /**
+     * Returns the event log this service reports to, e.g. to switch it to quiet mode for a
+     * bulk import or to flush it before printing.
+     */
+    public EventLog getEventLog() {
+        return this.events;
+    }
+
+    /**
+     * Returns the latency, throughput and size metrics of this service.
+     */
+    public ServiceMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Flushes and closes the write-ahead log. Does nothing for an in-memory service.
+     * @throws IOException if the log cannot be flushed.
+     */
+    public void close() throws IOException {
+        if (persistence != null) {
+            persistence.close();
+        }
     }
 
     /**
@@ -24,49 +235,383 @@ public class ATSService {
      * @param job The Job object to add.
      */
     public void postJob(Job job) {
-        this.jobs.add(job);
-        System.out.println("Job '" + job.getTitle() + "' posted successfully.");
+        long start = System.nanoTime();
+        try {
+            restoreJob(job);
+            awaitDurable(persistence != null ? persistence.logPostJob(job) : 0);
+            events.log(EventType.JOB_POSTED, job.getTitle());
+        } finally {
+            metrics.record(ServiceOperation.POST_JOB, start);
+        }
     }
 
     /**
-     * Adds a new applicant to the system.
+     * Edits a job's title and department, then rescores all of its applications,
+     * since both feed into the scoring rules.
+     * @param jobId The ID of the job.
+     * @param title The new title.
+     * @param department The new department.
+     * @return The rescoring report, or null if the job was not found.
+     */
+    public RescoreReport updateJob(String jobId, String title, String department) {
+        long start = System.nanoTime();
+        try {
+            Job job = jobsById.get(jobKey(jobId));
+            if (job == null) {
+                events.log(EventType.JOB_NOT_FOUND, jobId);
+                return null;
+            }
+            job.setTitle(title);
+            job.setDepartment(department);
+            awaitDurable(persistence != null ? persistence.logUpdateJob(job) : 0);
+            events.log(EventType.JOB_UPDATED, title);
+            return rescore(jobId);
+        } finally {
+            metrics.record(ServiceOperation.UPDATE_JOB, start);
+        }
+    }
+
+    /**
+     * Re-evaluates every application for a job, e.g. after its scoring criteria changed.
+     * Scores are computed in parallel chunks without holding the job lock, then written back
+     * one chunk per lock acquisition so intake for the job is only paused briefly. The
+     * leaderboard follows each score change and its readers are never blocked.
+     * @param jobId The ID of the job.
+     * @return The number of applications rescored, elapsed time and throughput.
+     */
+    public RescoreReport rescoreJob(String jobId) {
+        long start = System.nanoTime();
+        try {
+            return rescore(jobId);
+        } finally {
+            metrics.record(ServiceOperation.RESCORE_JOB, start);
+        }
+    }
+
+    // The work of rescoreJob, untimed so updateJob is not also recorded as a rescore
+    private RescoreReport rescore(String jobId) {
+        long start = System.nanoTime();
+        JobState state = jobStates.get(jobKey(jobId));
+        if (state == null) {
+            events.log(EventType.JOB_NOT_FOUND, jobId);
+            return new RescoreReport(jobId, 0, 0, System.nanoTime() - start);
+        }
+        // Drop the cached profile first so applications accepted from now on use the new criteria
+        Job job = state.getJob();
+        scoringEngine.invalidateJob(job.getId());
+        List<Application> jobApps = findApplicationsByJob(job.getId());
+        int chunks = (jobApps.size() + RESCORE_CHUNK_SIZE - 1) / RESCORE_CHUNK_SIZE;
+
+        int changed = IntStream.range(0, chunks).parallel().map(chunk -> {
+            int from = chunk * RESCORE_CHUNK_SIZE;
+            int to = Math.min(from + RESCORE_CHUNK_SIZE, jobApps.size());
+            int[] scores = new int[to - from];
+            // One read lock for the chunk rather than one per applicant
+            applicantIndexLock.readLock().lock();
+            try {
+                for (int i = from; i < to; i++) {
+                    Applicant applicant = jobApps.get(i).getApplicant();
+                    scores[i - from] = scoringEngine.score(featuresOf(applicant), applicant, job);
+                }
+            } finally {
+                applicantIndexLock.readLock().unlock();
+            }
+            int chunkChanged = 0;
+            long lastSeq = 0;
+            state.getLock().lock();
+            try {
+                // The whole chunk becomes visible to snapshots and the ranking at once
+                long version = versions.begin();
+                state.getLeaderboard().beginBatch();
+                try {
+                    for (int i = from; i < to; i++) {
+                        Application application = jobApps.get(i);
+                        int score = scores[i - from];
+                        if (application.getScore() != score) {
+                            chunkChanged++;
+                        }
+                        application.setScore(score);
+                        application.setRemarks("Rescored automatically: " + score);
+                        versions.update(application, version);
+                        if (persistence != null) {
+                            lastSeq = persistence.logSetScore(application);
+                        }
+                    }
+                } finally {
+                    state.getLeaderboard().endBatch();
+                    versions.commit(version);
+                }
+            } finally {
+                state.getLock().unlock();
+            }
+            awaitDurable(lastSeq);
+            return chunkChanged;
+        }).sum();
+
+        RescoreReport report = new RescoreReport(jobId, jobApps.size(), changed, System.nanoTime() - start);
+        events.log(EventType.JOB_RESCORED, report);
+        return report;
+    }
+
+    /**
+     * Adds a new applicant to the system, unless an applicant with the same email
+     * (ignoring case and surrounding spaces) was already added.
      * Uses polymorphism to handle different applicant types.
      * @param applicant The Applicant object to add.
+     * @return true if the applicant was added; false if it was rejected as a duplicate.
+     */
+    public boolean addApplicant(Applicant applicant) {
+        long start = System.nanoTime();
+        try {
+            // Registering the email also rejects adding the same applicant twice
+            if (!duplicates.registerEmail(applicant.getEmail(), applicant.getId())) {
+                events.log(EventType.DUPLICATE_APPLICANT, applicant.getName(), applicant.getEmail());
+                return false;
+            }
+            long seq = 0;
+            applicantIndexLock.writeLock().lock();
+            try {
+                // Still new by id too, unless the applicant was added before under another email
+                if (!claimApplicantId(applicant)) {
+                    duplicates.forgetEmail(applicant.getEmail(), applicant.getId());
+                    duplicates.countRejectedApplicant();
+                    events.log(EventType.DUPLICATE_APPLICANT, applicant.getName(), applicant.getEmail());
+                    return false;
+                }
+                indexApplicant(applicant);
+                // Logged under the lock so replay assigns the same ordinals
+                if (persistence != null) {
+                    seq = persistence.logAddApplicant(applicant);
+                }
+            } finally {
+                applicantIndexLock.writeLock().unlock();
+            }
+            awaitDurable(seq);
+            events.log(EventType.APPLICANT_ADDED, applicant.getName());
+            return true;
+        } finally {
+            metrics.record(ServiceOperation.ADD_APPLICANT, start);
+        }
+    }
+
+    /**
+     * Updates an applicant's name and email, keeping the keyword search indexes in step.
+     * Calling the Applicant setters directly would leave the indexes stale. An update to an
+     * email another applicant is registered under is rejected and changes nothing.
+     * @param applicantId The ID of the applicant.
+     * @param name The new name.
+     * @param email The new email.
      */
-    public void addApplicant(Applicant applicant) {
-        this.applicants.add(applicant);
-        System.out.println("Applicant '" + applicant.getName() + "' added successfully.");
+    public void updateApplicant(String applicantId, String name, String email) {
+        long start = System.nanoTime();
+        try {
+            Applicant applicant = findApplicant(applicantKey(applicantId));
+            if (applicant == null) {
+                events.log(EventType.APPLICANT_NOT_FOUND, applicantId);
+                return;
+            }
+            long seq = 0;
+            applicantIndexLock.writeLock().lock();
+            try {
+                if (!restoreApplicantUpdate(applicant.getId(), name, email)) {
+                    events.log(EventType.DUPLICATE_EMAIL, applicant.getName(), email);
+                    return;
+                }
+                if (persistence != null) {
+                    seq = persistence.logUpdateApplicant(applicant);
+                }
+            } finally {
+                applicantIndexLock.writeLock().unlock();
+            }
+            awaitDurable(seq);
+            events.log(EventType.APPLICANT_UPDATED, name);
+        } finally {
+            metrics.record(ServiceOperation.UPDATE_APPLICANT, start);
+        }
     }
 
     /**
-     * Accepts an application for a specific job.
+     * Accepts an application for a specific job, unless the applicant already applied to it.
      * @param applicant The applicant.
      * @param job The job they are applying for.
+     * @return true if the application was accepted; false if it was rejected as a duplicate.
+     */
+    public boolean acceptApplication(Applicant applicant, Job job) {
+        long start = System.nanoTime();
+        try {
+            return submitApplication(applicant, job) != null;
+        } finally {
+            metrics.record(ServiceOperation.ACCEPT_APPLICATION, start);
+        }
+    }
+
+    /**
+     * Does the work of {@link #acceptApplication} and returns the new application,
+     * e.g. so a sharded front end can route later calls for it.
+     * @return The application, or null if the applicant already applied to the job.
      */
-    public void acceptApplication(Applicant applicant, Job job) {
+    Application submitApplication(Applicant applicant, Job job) {
+        if (!duplicates.registerApplication(applicant.getId(), job.getId())) {
+            events.log(EventType.DUPLICATE_APPLICATION, applicant.getName(), job.getTitle());
+            return null;
+        }
         Application application = new Application(applicant, job);
-        this.applications.add(application);
-        System.out.println("Application submitted for " + applicant.getName() + " for job " + job.getTitle() + ".");
-        
-        // Automatically move to the screening stage and evaluate
-        advanceStage(application.getApplicationId(), "Screening");
-        int score = applicant.evaluate(job); // Polymorphism in action
-        application.setScore(score);
-        application.setRemarks("Initial automated score: " + score);
+        JobState state = this.jobStates.computeIfAbsent(job.getId(), id -> new JobState(job));
+        long seq = 0;
+        state.getLock().lock();
+        try {
+            this.applicationsById.put(application.getId(), application);
+            state.getApplications().add(application);
+            state.getPipeline().add(application);
+            recordTransition(application, null, Stage.APPLIED);
+            events.log(EventType.APPLICATION_SUBMITTED, applicant.getName(), job.getTitle());
+
+            // Automatically move to the screening stage and evaluate
+            state.getPipeline().move(application, Stage.SCREENING);
+            recordTransition(application, Stage.APPLIED, Stage.SCREENING);
+            events.log(EventType.STAGE_ADVANCED, applicant.getName(), Stage.SCREENING);
+            int score = score(applicant, job); // Same result as applicant.evaluate(job)
+            application.setScore(score);
+            application.setRemarks("Initial automated score: " + score);
+            // Ranked once scored, so readers never see it at score 0 first
+            state.getLeaderboard().add(application);
+            versions.append(application);
+            if (persistence != null) {
+                seq = persistence.logAcceptApplication(application);
+            }
+        } finally {
+            state.getLock().unlock();
+        }
+        awaitDurable(seq);
+        return application;
     }
     
+    /**
+     * Accepts a batch of applications, e.g. a bulk import from a job board.
+     * The applications are created and scored in parallel, then published into the store
+     * and indexes with one lock acquisition per job rather than one per application.
+     * Pairs whose applicant already applied to the job, before or earlier in the batch,
+     * are skipped.
+     * @param pairs The applicant and job of each application.
+     * @return The accepted applications, in the order of the pairs.
+     */
+    public List<Application> acceptApplications(Collection<ApplicantJobPair> pairs) {
+        long start = System.nanoTime();
+        try {
+            // Claim each pair first, one set insert each, so duplicates drop out before any work
+            List<ApplicantJobPair> fresh = new ArrayList<>(pairs.size());
+            for (ApplicantJobPair pair : pairs) {
+                if (duplicates.registerApplication(pair.getApplicant().getId(), pair.getJob().getId())) {
+                    fresh.add(pair);
+                }
+            }
+            if (fresh.size() < pairs.size()) {
+                events.log(EventType.DUPLICATES_SKIPPED, pairs.size() - fresh.size());
+            }
+
+            // Build and score off-lock; nothing is visible to other threads until published below
+            List<Application> accepted = fresh.parallelStream()
+                                              .map(pair -> {
+                                                  Application application = new Application(pair.getApplicant(), pair.getJob());
+                                                  application.setStage(Stage.SCREENING);
+                                                  int score = score(pair.getApplicant(), pair.getJob());
+                                                  application.setScore(score);
+                                                  application.setRemarks("Initial automated score: " + score);
+                                                  return application;
+                                              })
+                                              .collect(Collectors.toList());
+
+            Map<Long, List<Application>> byJob = new HashMap<>();
+            for (Application application : accepted) {
+                byJob.computeIfAbsent(application.getJob().getId(), id -> new ArrayList<>()).add(application);
+            }
+            long lastSeq = 0;
+            for (List<Application> jobApps : byJob.values()) {
+                Job job = jobApps.get(0).getJob();
+                JobState state = this.jobStates.computeIfAbsent(job.getId(), id -> new JobState(job));
+                state.getLock().lock();
+                try {
+                    // Snapshots see the job's share of the batch all at once
+                    long version = versions.begin();
+                    try {
+                        for (Application application : jobApps) {
+                            this.applicationsById.put(application.getId(), application);
+                            state.getPipeline().add(application);
+                            // Batch applications skip straight to screening; keep the history complete
+                            recordTransition(application, null, Stage.APPLIED);
+                            recordTransition(application, Stage.APPLIED, Stage.SCREENING);
+                            versions.append(application, version);
+                            if (persistence != null) {
+                                lastSeq = Math.max(lastSeq, persistence.logAcceptApplication(application));
+                            }
+                        }
+                    } finally {
+                        versions.commit(version);
+                    }
+                    state.getApplications().addAll(jobApps);
+                    state.getLeaderboard().addAll(jobApps);
+                } finally {
+                    state.getLock().unlock();
+                }
+            }
+            // One wait covers the whole batch: the log commits records in order
+            awaitDurable(lastSeq);
+            events.log(EventType.APPLICATIONS_ACCEPTED, accepted.size(), byJob.size());
+            return accepted;
+        } finally {
+            metrics.record(ServiceOperation.ACCEPT_APPLICATIONS, start);
+        }
+    }
+
     /**
      * Advances the stage of a specific application.
      * @param applicationId The ID of the application.
      * @param newStage The new stage (e.g., "Screening", "Interview", "Offer").
      */
     public void advanceStage(String applicationId, String newStage) {
-        Application app = findApplicationById(applicationId);
-        if (app != null) {
-            app.setStage(newStage);
-            System.out.println("Application for " + app.getApplicant().getName() + " advanced to stage: " + newStage);
-        } else {
-            System.out.println("Application with ID " + applicationId + " not found.");
+        long start = System.nanoTime();
+        try {
+            Stage stage = Stage.fromName(newStage);
+            if (stage == null) {
+                events.log(EventType.UNKNOWN_STAGE, newStage);
+                return;
+            }
+            Application app = findApplicationById(applicationKey(applicationId));
+            if (app != null) {
+                JobState state = jobStates.get(app.getJob().getId());
+                long seq = 0;
+                state.getLock().lock();
+                try {
+                    Stage from = app.getPipelineStage();
+                    state.getPipeline().move(app, stage);
+                    if (from != stage) {
+                        recordTransition(app, from, stage);
+                        versions.update(app);
+                    }
+                    if (persistence != null) {
+                        seq = persistence.logAdvanceStage(app);
+                    }
+                } finally {
+                    state.getLock().unlock();
+                }
+                awaitDurable(seq);
+                events.log(EventType.STAGE_ADVANCED, app.getApplicant().getName(), stage);
+            } else {
+                events.log(EventType.APPLICATION_NOT_FOUND, applicationId);
+            }
+        } finally {
+            metrics.record(ServiceOperation.ADVANCE_STAGE, start);
+        }
+    }
+
+    /**
+     * Records a transition in the stage history and, with persistence, in the log.
+     * Callers hold the job's lock, so an application's transitions are logged in order.
+     */
+    private void recordTransition(Application application, Stage from, Stage to) {
+        StageTransition transition = stageHistory.record(application, from, to);
+        if (persistence != null) {
+            persistence.logStageTransition(transition);
         }
     }
 
@@ -75,13 +620,331 @@ public class ATSService {
      * @param id The application ID.
      * @return The Application object or null if not found.
      */
-    private Application findApplicationById(String id) {
-        for (Application app : applications) {
-            if (app.getApplicationId().equals(id)) {
-                return app;
+    private Application findApplicationById(long id) {
+        return applicationsById.get(id);
+    }
+
+    // Display IDs ("J-42") to map keys; anything malformed maps to -1, which is never allocated
+    private static long jobKey(String jobId) {
+        return IdAllocator.parse(jobId, "J-");
+    }
+
+    private static long applicantKey(String applicantId) {
+        return IdAllocator.parse(applicantId, "A-");
+    }
+
+    private static long applicationKey(String applicationId) {
+        return IdAllocator.parse(applicationId, "APP-");
+    }
+
+    private void awaitDurable(long seq) {
+        if (persistence != null) {
+            persistence.awaitDurable(seq);
+        }
+    }
+
+    // --- State access for persistence: these neither log nor print ---
+
+    void restoreJob(Job job) {
+        this.jobsById.put(job.getId(), job);
+        this.jobStates.computeIfAbsent(job.getId(), id -> new JobState(job));
+    }
+
+    /**
+     * Registers and indexes an applicant.
+     * @return true if the applicant was new.
+     */
+    boolean restoreApplicant(Applicant applicant) {
+        applicantIndexLock.writeLock().lock();
+        try {
+            if (!claimApplicantId(applicant)) {
+                return false;
             }
+            duplicates.registerEmail(applicant.getEmail(), applicant.getId());
+            indexApplicant(applicant);
+        } finally {
+            applicantIndexLock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Claims an applicant's id for a new applicant. Callers must hold the applicant index
+     * write lock, so a claim and the indexing that follows it are one step.
+     * @return false if an applicant with the id was already added.
+     */
+    private boolean claimApplicantId(Applicant applicant) {
+        if (applicantStore != null) {
+            return !ordinalsByApplicantId.containsKey(applicant.getId());
+        }
+        return applicantsById.putIfAbsent(applicant.getId(), applicant) == null;
+    }
+
+    /**
+     * Assigns the next ordinal to an applicant and adds it to every search index.
+     * Callers must hold the applicant index write lock.
+     */
+    private void indexApplicant(Applicant applicant) {
+        int ordinal = this.applicantsByOrdinal.size();
+        this.applicantsByOrdinal.add(applicant);
+        indexOrdinal(ordinal, applicant);
+    }
+
+    /**
+     * Adds an applicant already stored at an ordinal to every search index.
+     */
+    private void indexOrdinal(int ordinal, Applicant applicant) {
+        this.ordinalsByApplicantId.put(applicant.getId(), ordinal);
+        this.skillIndex.add(ordinal, applicant.getSkills());
+        this.experienceIndex.add(ordinal, applicant.getYearsOfExperience());
+        this.nameIndex.add(ordinal, applicant.getName());
+        this.emailIndex.add(ordinal, applicant.getEmail());
+        this.featuresByOrdinal.add(scoringEngine.compile(applicant));
+    }
+
+    /**
+     * Scores an applicant for a job, from the features compiled when it was indexed.
+     */
+    private int score(Applicant applicant, Job job) {
+        ScoringEngine.ApplicantFeatures features;
+        applicantIndexLock.readLock().lock();
+        try {
+            features = featuresOf(applicant);
+        } finally {
+            applicantIndexLock.readLock().unlock();
+        }
+        return scoringEngine.score(features, applicant, job);
+    }
+
+    /**
+     * Returns the features compiled when an applicant was indexed, or compiles them on the
+     * spot for an applicant this service has not indexed, e.g. one only named in a batch.
+     * Callers must hold the applicant index lock.
+     */
+    private ScoringEngine.ApplicantFeatures featuresOf(Applicant applicant) {
+        Integer ordinal = ordinalsByApplicantId.get(applicant.getId());
+        return ordinal != null ? featuresByOrdinal.get(ordinal) : scoringEngine.compile(applicant);
+    }
+
+    /**
+     * Applies an applicant update, directly or on replay.
+     * @return false, changing nothing, if the applicant is unknown or another applicant
+     *         is registered under the email.
+     */
+    boolean restoreApplicantUpdate(long applicantId, String name, String email) {
+        Applicant applicant = findApplicant(applicantId);
+        if (applicant == null) {
+            return false;
+        }
+        applicantIndexLock.writeLock().lock();
+        try {
+            int ordinal = ordinalsByApplicantId.get(applicantId);
+            if (!duplicates.changeEmail(applicant.getEmail(), email, applicantId)) {
+                return false;
+            }
+            applicant.setName(name);
+            applicant.setEmail(email);
+            // The indexes read the old values from the store, so it changes after them
+            nameIndex.update(ordinal, name);
+            emailIndex.update(ordinal, email);
+            if (applicantStore != null) {
+                applicantStore.update(ordinal, name, email);
+            }
+        } finally {
+            applicantIndexLock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Publishes an application with whatever stage and score it already carries.
+     */
+    void restoreApplication(Application application) {
+        Job job = application.getJob();
+        duplicates.registerApplication(application.getApplicant().getId(), job.getId());
+        JobState state = this.jobStates.computeIfAbsent(job.getId(), id -> new JobState(job));
+        state.getLock().lock();
+        try {
+            this.applicationsById.put(application.getId(), application);
+            state.getApplications().add(application);
+            state.getLeaderboard().add(application);
+            state.getPipeline().add(application);
+            versions.append(application);
+        } finally {
+            state.getLock().unlock();
+        }
+    }
+
+    void restoreStage(long applicationId, Stage stage) {
+        Application app = findApplicationById(applicationId);
+        if (app == null) {
+            return;
+        }
+        JobState state = jobStates.get(app.getJob().getId());
+        state.getLock().lock();
+        try {
+            state.getPipeline().move(app, stage);
+            versions.update(app);
+        } finally {
+            state.getLock().unlock();
+        }
+    }
+
+    void restoreScore(long applicationId, int score, String remarks) {
+        Application app = findApplicationById(applicationId);
+        if (app == null) {
+            return;
+        }
+        JobState state = jobStates.get(app.getJob().getId());
+        state.getLock().lock();
+        try {
+            app.setScore(score);
+            app.setRemarks(remarks);
+            versions.update(app);
+        } finally {
+            state.getLock().unlock();
+        }
+    }
+
+    void restoreStageTransition(StageTransition transition) {
+        Job job = jobsById.get(transition.getJobId());
+        if (job != null) {
+            stageHistory.restore(transition, job);
+        }
+    }
+
+    List<StageTransition> stageTransitionsForJob(long jobId) {
+        return stageHistory.transitionsForJob(jobId);
+    }
+
+    Job findJob(long jobId) {
+        return jobsById.get(jobId);
+    }
+
+    /**
+     * Returns the current email of an added applicant without reading the rest of it back
+     * from the store, or null if it is not indexed (yet).
+     */
+    private String emailOf(long applicantId) {
+        if (applicantStore == null) {
+            Applicant applicant = applicantsById.get(applicantId);
+            return applicant != null ? applicant.getEmail() : null;
+        }
+        applicantIndexLock.readLock().lock();
+        try {
+            Integer ordinal = ordinalsByApplicantId.get(applicantId);
+            return ordinal != null ? applicantStore.emailOf(ordinal) : null;
+        } finally {
+            applicantIndexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns an added applicant: the object itself, or a copy read back from the
+     * applicant store if there is one.
+     */
+    Applicant findApplicant(long applicantId) {
+        if (applicantStore == null) {
+            return applicantsById.get(applicantId);
+        }
+        applicantIndexLock.readLock().lock();
+        try {
+            Integer ordinal = ordinalsByApplicantId.get(applicantId);
+            return ordinal != null ? applicantsByOrdinal.get(ordinal) : null;
+        } finally {
+            applicantIndexLock.readLock().unlock();
+        }
+    }
+
+    Application findApplication(long applicationId) {
+        return applicationsById.get(applicationId);
+    }
+
+    List<Job> postedJobs() {
+        return new ArrayList<>(jobsById.values());
+    }
+
+    /**
+     * Returns the applicants added through addApplicant, in the order they were added.
+     */
+    List<Applicant> indexedApplicants() {
+        applicantIndexLock.readLock().lock();
+        try {
+            return new ArrayList<>(applicantsByOrdinal);
+        } finally {
+            applicantIndexLock.readLock().unlock();
+        }
+    }
+
+    List<Long> jobIds() {
+        return new ArrayList<>(jobStates.keySet());
+    }
+
+    /**
+     * Returns the applicants whose emails this service has registered as its own.
+     */
+    List<Applicant> registeredApplicants() {
+        List<Applicant> registered = new ArrayList<>();
+        for (long applicantId : duplicates.registeredApplicantIds()) {
+            Applicant applicant = findApplicant(applicantId);
+            if (applicant != null) {
+                registered.add(applicant);
+            }
+        }
+        return registered;
+    }
+
+    /**
+     * Gives up an applicant's email registration, e.g. once a sharded front end has moved
+     * it to another shard. The applicant stays indexed, and nothing is written to the log.
+     */
+    void releaseApplicant(Applicant applicant) {
+        duplicates.forgetEmail(applicant.getEmail(), applicant.getId());
+    }
+
+    List<Application> applicationsForJob(long jobId) {
+        return findApplicationsByJob(jobId);
+    }
+
+    /**
+     * Drops a job and its applications, e.g. once a sharded front end has moved them to
+     * another shard. Applicants stay, and nothing is written to the log.
+     */
+    void removeJob(long jobId) {
+        JobState state = jobStates.remove(jobId);
+        jobsById.remove(jobId);
+        if (state != null) {
+            state.getLock().lock();
+            try {
+                for (Application application : state.getApplications()) {
+                    applicationsById.remove(application.getId());
+                }
+                versions.removeJob(jobId);
+            } finally {
+                state.getLock().unlock();
+            }
+        }
+        stageHistory.removeJob(jobId);
+        scoringEngine.invalidateJob(jobId);
+        duplicates.forgetJob(jobId);
+    }
+
+    /**
+     * Returns a copy of the applications submitted for a job.
+     * @param jobId The job ID.
+     * @return The applications for the job, in submission order, or an empty list if there are none.
+     */
+    private List<Application> findApplicationsByJob(long jobId) {
+        JobState state = jobStates.get(jobId);
+        if (state == null) {
+            return new ArrayList<>();
+        }
+        state.getLock().lock();
+        try {
+            return new ArrayList<>(state.getApplications());
+        } finally {
+            state.getLock().unlock();
         }
-        return null;
     }
     
     // --- Method Overloading Examples ---
@@ -92,10 +955,58 @@ public class ATSService {
      * @return A list of matching applicants.
      */
     public List<Applicant> searchApplicants(String skill) {
-        System.out.println("Searching applicants by skill: " + skill);
-        return applicants.stream()
-                         .filter(applicant -> applicant.getSkills().contains(skill))
-                         .collect(Collectors.toList());
+        long start = System.nanoTime();
+        try {
+            events.log(EventType.SEARCH_BY_SKILL, skill);
+            applicantIndexLock.readLock().lock();
+            try {
+                return toApplicants(skillIndex.query(skill));
+            } finally {
+                applicantIndexLock.readLock().unlock();
+            }
+        } finally {
+            metrics.record(ServiceOperation.SEARCH_BY_SKILL, start);
+        }
+    }
+
+    /**
+     * Searches for applicants that have all of the given skills.
+     * @param skills The skills every match must have.
+     * @return A list of matching applicants.
+     */
+    public List<Applicant> searchApplicantsWithAllSkills(List<String> skills) {
+        long start = System.nanoTime();
+        try {
+            events.log(EventType.SEARCH_ALL_SKILLS, List.copyOf(skills));
+            applicantIndexLock.readLock().lock();
+            try {
+                return toApplicants(skillIndex.queryAll(skills));
+            } finally {
+                applicantIndexLock.readLock().unlock();
+            }
+        } finally {
+            metrics.record(ServiceOperation.SEARCH_ALL_SKILLS, start);
+        }
+    }
+
+    /**
+     * Searches for applicants that have at least one of the given skills.
+     * @param skills The skills to match on.
+     * @return A list of matching applicants.
+     */
+    public List<Applicant> searchApplicantsWithAnySkill(List<String> skills) {
+        long start = System.nanoTime();
+        try {
+            events.log(EventType.SEARCH_ANY_SKILL, List.copyOf(skills));
+            applicantIndexLock.readLock().lock();
+            try {
+                return toApplicants(skillIndex.queryAny(skills));
+            } finally {
+                applicantIndexLock.readLock().unlock();
+            }
+        } finally {
+            metrics.record(ServiceOperation.SEARCH_ANY_SKILL, start);
+        }
     }
 
     /**
@@ -104,10 +1015,67 @@ public class ATSService {
      * @return A list of matching applicants.
      */
     public List<Applicant> searchApplicants(int minYears) {
-        System.out.println("Searching applicants with at least " + minYears + " years of experience.");
-        return applicants.stream()
-                         .filter(applicant -> applicant.getYearsOfExperience() >= minYears)
-                         .collect(Collectors.toList());
+        long start = System.nanoTime();
+        try {
+            events.log(EventType.SEARCH_MIN_EXPERIENCE, minYears);
+            applicantIndexLock.readLock().lock();
+            try {
+                return toApplicants(experienceIndex.query(minYears, Integer.MAX_VALUE));
+            } finally {
+                applicantIndexLock.readLock().unlock();
+            }
+        } finally {
+            metrics.record(ServiceOperation.SEARCH_MIN_EXPERIENCE, start);
+        }
+    }
+
+    /**
+     * Searches for applicants whose years of experience fall within a range.
+     * @param minYears The minimum years of experience (inclusive).
+     * @param maxYears The maximum years of experience (inclusive).
+     * @return A list of matching applicants.
+     */
+    public List<Applicant> searchApplicants(int minYears, int maxYears) {
+        long start = System.nanoTime();
+        try {
+            events.log(EventType.SEARCH_EXPERIENCE_RANGE, minYears, maxYears);
+            applicantIndexLock.readLock().lock();
+            try {
+                return toApplicants(experienceIndex.query(minYears, maxYears));
+            } finally {
+                applicantIndexLock.readLock().unlock();
+            }
+        } finally {
+            metrics.record(ServiceOperation.SEARCH_EXPERIENCE_RANGE, start);
+        }
+    }
+
+    /**
+     * Searches for applicants with a specific skill and at least a number of years of experience.
+     * @param skill The skill to search for.
+     * @param minYears The minimum years of experience.
+     * @return A list of matching applicants.
+     */
+    public List<Applicant> searchApplicants(String skill, int minYears) {
+        long start = System.nanoTime();
+        try {
+            events.log(EventType.SEARCH_SKILL_AND_EXPERIENCE, skill, minYears);
+            applicantIndexLock.readLock().lock();
+            try {
+                int[] ordinals;
+                // Start from whichever index yields fewer candidates, then filter or intersect
+                if (skillIndex.count(skill) <= experienceIndex.estimateCount(minYears, Integer.MAX_VALUE)) {
+                    ordinals = experienceIndex.filter(skillIndex.query(skill), minYears, Integer.MAX_VALUE);
+                } else {
+                    ordinals = OrdinalList.intersect(experienceIndex.query(minYears, Integer.MAX_VALUE), skillIndex.query(skill));
+                }
+                return toApplicants(ordinals);
+            } finally {
+                applicantIndexLock.readLock().unlock();
+            }
+        } finally {
+            metrics.record(ServiceOperation.SEARCH_SKILL_AND_EXPERIENCE, start);
+        }
     }
 
     /**
@@ -117,17 +1085,180 @@ public class ATSService {
      * @return A list of matching applicants.
      */
     public List<Applicant> searchApplicants(String keyword, String searchField) {
-        System.out.println("Searching applicants by keyword '" + keyword + "' in " + searchField + " field.");
-        return applicants.stream()
-                         .filter(applicant -> {
-                             if (searchField.equalsIgnoreCase("name")) {
-                                 return applicant.getName().toLowerCase().contains(keyword.toLowerCase());
-                             } else if (searchField.equalsIgnoreCase("email")) {
-                                 return applicant.getEmail().toLowerCase().contains(keyword.toLowerCase());
-                             }
-                             return false;
-                         })
-                         .collect(Collectors.toList());
+        long start = System.nanoTime();
+        try {
+            events.log(EventType.SEARCH_KEYWORD, keyword, searchField);
+            TrigramIndex index;
+            if (searchField.equalsIgnoreCase("name")) {
+                index = nameIndex;
+            } else if (searchField.equalsIgnoreCase("email")) {
+                index = emailIndex;
+            } else {
+                return new ArrayList<>();
+            }
+            applicantIndexLock.readLock().lock();
+            try {
+                return toApplicants(index.query(keyword));
+            } finally {
+                applicantIndexLock.readLock().unlock();
+            }
+        } finally {
+            metrics.record(ServiceOperation.SEARCH_KEYWORD, start);
+        }
+    }
+
+    /**
+     * Searches for applicants matching several criteria at once. The most selective
+     * indexed criterion produces the candidates and the rest are only checked on those.
+     * @param query The criteria to match.
+     * @return A list of matching applicants, in the order they were added.
+     */
+    public List<Applicant> searchApplicants(ApplicantQuery query) {
+        long start = System.nanoTime();
+        try {
+            ApplicantQuery snapshot = query.copy();
+            events.log(EventType.SEARCH_QUERY, snapshot);
+            applicantIndexLock.readLock().lock();
+            try {
+                OrdinalCursor cursor = queryPlanner.plan(snapshot).open();
+                List<Applicant> result = new ArrayList<>();
+                for (int ordinal = cursor.advance(0); ordinal != OrdinalCursor.END; ordinal = cursor.advance(ordinal + 1)) {
+                    result.add(applicantsByOrdinal.get(ordinal));
+                }
+                return result;
+            } finally {
+                applicantIndexLock.readLock().unlock();
+            }
+        } finally {
+            metrics.record(ServiceOperation.SEARCH_QUERY, start);
+        }
+    }
+
+    /**
+     * Shows how {@link #searchApplicants(ApplicantQuery)} would evaluate a query right now,
+     * without running it.
+     * @param query The criteria to match.
+     * @return The chosen plan; its explain() text lists the steps with their estimates.
+     */
+    public QueryPlan explain(ApplicantQuery query) {
+        long start = System.nanoTime();
+        try {
+            ApplicantQuery snapshot = query.copy();
+            applicantIndexLock.readLock().lock();
+            try {
+                return queryPlanner.plan(snapshot);
+            } finally {
+                applicantIndexLock.readLock().unlock();
+            }
+        } finally {
+            metrics.record(ServiceOperation.EXPLAIN_QUERY, start);
+        }
+    }
+
+    // --- Cursors: lazily evaluated, paginated variants of the searches above ---
+
+    /**
+     * Opens a lazy search for applicants with a specific skill.
+     * @param skill The skill to search for.
+     * @return A cursor; nothing is matched until it is read.
+     */
+    public ApplicantCursor searchApplicantsCursor(String skill) {
+        return applicantCursor(() -> skillIndex.cursor(skill));
+    }
+
+    /**
+     * Opens a lazy search for applicants that have all of the given skills.
+     */
+    public ApplicantCursor searchApplicantsWithAllSkillsCursor(List<String> skills) {
+        List<String> copy = new ArrayList<>(skills);
+        return applicantCursor(() -> skillIndex.cursorAll(copy));
+    }
+
+    /**
+     * Opens a lazy search for applicants that have at least one of the given skills.
+     */
+    public ApplicantCursor searchApplicantsWithAnySkillCursor(List<String> skills) {
+        List<String> copy = new ArrayList<>(skills);
+        return applicantCursor(() -> skillIndex.cursorAny(copy));
+    }
+
+    /**
+     * Opens a lazy search for applicants with at least a number of years of experience.
+     */
+    public ApplicantCursor searchApplicantsCursor(int minYears) {
+        return applicantCursor(() -> experienceIndex.cursor(minYears, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Opens a lazy search for applicants whose years of experience fall within a range.
+     */
+    public ApplicantCursor searchApplicantsCursor(int minYears, int maxYears) {
+        return applicantCursor(() -> experienceIndex.cursor(minYears, maxYears));
+    }
+
+    /**
+     * Opens a lazy search for applicants with a specific skill and at least a number of
+     * years of experience.
+     */
+    public ApplicantCursor searchApplicantsCursor(String skill, int minYears) {
+        return applicantCursor(() -> {
+            // Same choice as the eager search: filter the smaller side by the other
+            if (skillIndex.count(skill) <= experienceIndex.estimateCount(minYears, Integer.MAX_VALUE)) {
+                return OrdinalCursor.filter(skillIndex.cursor(skill),
+                                            ordinal -> experienceIndex.matches(ordinal, minYears, Integer.MAX_VALUE));
+            }
+            return OrdinalCursor.and(List.of(skillIndex.cursor(skill), experienceIndex.cursor(minYears, Integer.MAX_VALUE)));
+        });
+    }
+
+    /**
+     * Opens a lazy search for applicants whose name or email contains a keyword.
+     * @param searchField The field to search in ("name" or "email"); any other value matches nothing.
+     */
+    public ApplicantCursor searchApplicantsCursor(String keyword, String searchField) {
+        if (searchField.equalsIgnoreCase("name")) {
+            return applicantCursor(() -> nameIndex.cursor(keyword));
+        } else if (searchField.equalsIgnoreCase("email")) {
+            return applicantCursor(() -> emailIndex.cursor(keyword));
+        }
+        return applicantCursor(OrdinalCursor::empty);
+    }
+
+    /**
+     * Opens a lazy search for applicants matching several criteria at once. Each page is
+     * planned against the indexes as they are when it is fetched.
+     */
+    public ApplicantCursor searchApplicantsCursor(ApplicantQuery query) {
+        ApplicantQuery snapshot = query.copy();
+        return applicantCursor(() -> queryPlanner.plan(snapshot).open());
+    }
+
+    /**
+     * Opens a lazy view of a job's score ranking, best first.
+     * @param jobId The job to rank applicants for.
+     * @return A cursor; an unknown job yields an empty ranking.
+     */
+    public RankingCursor rankingCursor(String jobId) {
+        JobState state = jobStates.get(jobKey(jobId));
+        return new RankingCursor(state != null ? state.getLeaderboard() : null, metrics);
+    }
+
+    private ApplicantCursor applicantCursor(Supplier<OrdinalCursor> query) {
+        return new ApplicantCursor(applicantIndexLock, query, applicantsByOrdinal::get, metrics);
+    }
+
+    /**
+     * Resolves applicant ordinals from an index into Applicant objects.
+     * Callers must hold the applicant index read lock.
+     * @param ordinals Sorted applicant ordinals.
+     * @return The applicants, in the order they were added.
+     */
+    private List<Applicant> toApplicants(int[] ordinals) {
+        List<Applicant> result = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            result.add(applicantsByOrdinal.get(ordinal));
+        }
+        return result;
     }
 
     /**
@@ -136,13 +1267,53 @@ public class ATSService {
      * @return A sorted list of applications.
      */
     public List<Application> rankByScore(String jobId) {
-        System.out.println("Ranking applicants for job ID: " + jobId);
-        List<Application> rankedList = applications.stream()
-                                                    .filter(app -> app.getJob().getJobId().equals(jobId))
-                                                    .collect(Collectors.toList());
-        
-        Collections.sort(rankedList, Comparator.comparingInt(Application::getScore).reversed());
-        return rankedList;
+        long start = System.nanoTime();
+        try {
+            events.log(EventType.RANKING, jobId);
+            JobState state = jobStates.get(jobKey(jobId));
+            if (state == null) {
+                return new ArrayList<>();
+            }
+            return state.getLeaderboard().topK(state.getLeaderboard().size());
+        } finally {
+            metrics.record(ServiceOperation.RANK_BY_SCORE, start);
+        }
+    }
+
+    /**
+     * Returns the k highest-scoring applications for a job.
+     * @param jobId The job to rank applicants for.
+     * @param k The maximum number of applications to return.
+     * @return The applications, best first.
+     */
+    public List<Application> topK(String jobId, int k) {
+        long start = System.nanoTime();
+        try {
+            return leaderboardPage(jobId, 0, k);
+        } finally {
+            metrics.record(ServiceOperation.TOP_K, start);
+        }
+    }
+
+    /**
+     * Returns one page of the score ranking for a job.
+     * @param jobId The job to rank applicants for.
+     * @param offset The number of ranked applications to skip.
+     * @param limit The maximum number of applications to return.
+     * @return The applications on the page, best first.
+     */
+    public List<Application> rankPage(String jobId, int offset, int limit) {
+        long start = System.nanoTime();
+        try {
+            return leaderboardPage(jobId, offset, limit);
+        } finally {
+            metrics.record(ServiceOperation.RANK_PAGE, start);
+        }
+    }
+
+    private List<Application> leaderboardPage(String jobId, int offset, int limit) {
+        JobState state = jobStates.get(jobKey(jobId));
+        return state != null ? state.getLeaderboard().page(offset, limit) : new ArrayList<>();
     }
 
     /**
@@ -150,36 +1321,172 @@ public class ATSService {
      * @param jobId The job to print the pipeline for.
      */
     public void printJobPipeline(String jobId) {
-        Job job = jobs.stream().filter(j -> j.getJobId().equals(jobId)).findFirst().orElse(null);
-        if (job == null) {
-            System.out.println("Job not found.");
-            return;
-        }
+        long start = System.nanoTime();
+        try {
+            // The report is printed directly, after any events still on their way to the console
+            events.flush();
+            Job job = jobsById.get(jobKey(jobId));
+            if (job == null) {
+                System.out.println("Job not found.");
+                return;
+            }
 
-        System.out.println("\n--- Job Pipeline for: " + job.getTitle() + " ---");
-        List<Application> jobApps = applications.stream()
-                                               .filter(app -> app.getJob().getJobId().equals(jobId))
-                                               .collect(Collectors.toList());
-        
-        System.out.println("Total applications: " + jobApps.size());
-        
-        // Group applications by stage
-        List<String> stages = List.of("Applied", "Screening", "Interview", "Offer");
-        for (String stage : stages) {
-            System.out.println("\n--- Stage: " + stage + " ---");
-            List<Application> stageApps = jobApps.stream()
-                                                 .filter(app -> app.getStage().equals(stage))
-                                                 .collect(Collectors.toList());
-            if (stageApps.isEmpty()) {
-                System.out.println("  (No applicants in this stage)");
-            } else {
-                for (Application app : stageApps) {
-                    System.out.printf("  - %s (Score: %d, Remarks: %s)\n", 
-                                      app.getApplicant().getName(), 
-                                      app.getScore(), 
-                                      app.getRemarks());
+            System.out.println("\n--- Job Pipeline for: " + job.getTitle() + " ---");
+            // Read a snapshot rather than the live pipeline, so intake for the job carries on
+            List<List<ApplicationVersion>> stageApps;
+            try (ApplicationSnapshot snapshot = versions.snapshot()) {
+                stageApps = snapshot.getPipeline(jobId);
+            }
+            int total = 0;
+            for (List<ApplicationVersion> apps : stageApps) {
+                total += apps.size();
+            }
+            System.out.println("Total applications: " + total);
+
+            for (Stage stage : Stage.values()) {
+                System.out.println("\n--- Stage: " + stage + " ---");
+                if (stageApps.get(stage.ordinal()).isEmpty()) {
+                    System.out.println("  (No applicants in this stage)");
+                } else {
+                    for (ApplicationVersion app : stageApps.get(stage.ordinal())) {
+                        System.out.printf("  - %s (Score: %d, Remarks: %s)\n", 
+                                          app.getApplicant().getName(), 
+                                          app.getScore(), 
+                                          app.getRemarks());
+                    }
                 }
             }
+        } finally {
+            metrics.record(ServiceOperation.PRINT_JOB_PIPELINE, start);
+        }
+    }
+
+    /**
+     * Opens a consistent, point-in-time view of every application for reports. It takes no
+     * lock and intake carries on while it is read, without showing up in it.
+     * @return The snapshot; close it when done, so the versions it holds can be reclaimed.
+     */
+    public ApplicationSnapshot snapshot() {
+        long start = System.nanoTime();
+        try {
+            return versions.snapshot();
+        } finally {
+            metrics.record(ServiceOperation.OPEN_SNAPSHOT, start);
+        }
+    }
+
+    /**
+     * Returns the number of applications for a job in each stage.
+     * @param jobId The job ID.
+     * @return Stage counts indexed by {@link Stage#ordinal()}, or all zeros if the job is unknown.
+     */
+    public int[] getStageCounts(String jobId) {
+        long start = System.nanoTime();
+        try {
+            JobState state = jobStates.get(jobKey(jobId));
+            return state != null ? state.getPipeline().counts() : new int[Stage.values().length];
+        } finally {
+            metrics.record(ServiceOperation.GET_STAGE_COUNTS, start);
+        }
+    }
+
+    /**
+     * Lists the applications for a job that are currently in a given stage.
+     * @param jobId The job ID.
+     * @param stage The stage to list.
+     * @return The applications in that stage, in the order they entered it.
+     */
+    public List<Application> getApplicationsInStage(String jobId, Stage stage) {
+        long start = System.nanoTime();
+        try {
+            JobState state = jobStates.get(jobKey(jobId));
+            if (state == null) {
+                return new ArrayList<>();
+            }
+            state.getLock().lock();
+            try {
+                return state.getPipeline().applicationsIn(stage);
+            } finally {
+                state.getLock().unlock();
+            }
+        } finally {
+            metrics.record(ServiceOperation.GET_APPLICATIONS_IN_STAGE, start);
+        }
+    }
+
+    // --- Funnel analytics over the stage history ---
+
+    /**
+     * Returns how many applications for a job reached each stage, with the conversion
+     * rates between them.
+     * @param jobId The job ID.
+     * @return The funnel; all zeros for an unknown job.
+     */
+    public FunnelStats getFunnel(String jobId) {
+        long start = System.nanoTime();
+        try {
+            return stageHistory.funnelForJob(jobKey(jobId));
+        } finally {
+            metrics.record(ServiceOperation.GET_FUNNEL, start);
+        }
+    }
+
+    /**
+     * Returns how many applications for the jobs of a department reached each stage.
+     * @param department The department name.
+     * @return The funnel; all zeros for a department without applications.
+     */
+    public FunnelStats getDepartmentFunnel(String department) {
+        long start = System.nanoTime();
+        try {
+            return stageHistory.funnelForDepartment(department);
+        } finally {
+            metrics.record(ServiceOperation.GET_DEPARTMENT_FUNNEL, start);
         }
     }
+
+    /**
+     * Returns the median time applications for a job spent in a stage before moving on.
+     * @param jobId The job ID.
+     * @param stage The stage.
+     * @return The median in milliseconds, or -1 if no application has left the stage yet.
+     */
+    public long getMedianTimeInStage(String jobId, Stage stage) {
+        long start = System.nanoTime();
+        try {
+            return stageHistory.medianTimeInStage(jobKey(jobId), stage);
+        } finally {
+            metrics.record(ServiceOperation.GET_TIME_IN_STAGE, start);
+        }
+    }
+
+    /**
+     * Returns the median time applications for a department's jobs spent in a stage
+     * before moving on.
+     * @param department The department name.
+     * @param stage The stage.
+     * @return The median in milliseconds, or -1 if no application has left the stage yet.
+     */
+    public long getDepartmentMedianTimeInStage(String department, Stage stage) {
+        long start = System.nanoTime();
+        try {
+            return stageHistory.medianTimeInStage(department, stage);
+        } finally {
+            metrics.record(ServiceOperation.GET_DEPARTMENT_TIME_IN_STAGE, start);
+        }
+    }
+
+    /**
+     * Returns the duplicate detector, e.g. to read how many duplicates were rejected.
+     */
+    public DuplicateDetector getDuplicateDetector() {
+        return this.duplicates;
+    }
+
+    /**
+     * Returns the full stage-transition history, e.g. for time-range queries.
+     */
+    public StageHistory getStageHistory() {
+        return this.stageHistory;
+    }
 }
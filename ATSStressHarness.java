@@ -0,0 +1,138 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Stress harness for concurrent intake. Many threads add applicants, submit applications
+ * across a handful of jobs and advance stages at the same time, and read snapshots while they
+ * do; afterwards the counters and indexes are checked against what the threads actually did.
+ * Run it like ATSAppMain; it exits with status 1 if any check fails.
+ */
+public class ATSStressHarness {
+    private static final int THREADS = 8;
+    private static final int APPLICANTS_PER_THREAD = 250;
+    private static final int JOBS = 8;
+
+    public static void main(String[] args) throws Exception {
+        ATSService atsService = new ATSService();
+        List<Job> jobs = new ArrayList<>();
+        for (int i = 0; i < JOBS; i++) {
+            Job job = new Job(i % 2 == 0 ? "Software Engineer " + i : "Marketing Manager " + i, "Dept " + i, "Remote");
+            jobs.add(job);
+        }
+
+        int applicantsBefore = Applicant.getApplicantCount();
+        int applicationsBefore = Application.getApplicationCount();
+        Set<String> applicantIds = ConcurrentHashMap.newKeySet();
+        Set<String> javaApplicantIds = ConcurrentHashMap.newKeySet();
+        AtomicIntegerArray submittedPerJob = new AtomicIntegerArray(JOBS);
+        AtomicInteger changedSnapshots = new AtomicInteger();
+
+        // The service reports every call; keep that out of the harness output
+        atsService.getEventLog().setQuiet(true);
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Job job : jobs) {
+                atsService.postJob(job);
+            }
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                futures.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < APPLICANTS_PER_THREAD; i++) {
+                        boolean knowsJava = i % 3 == 0;
+                        List<String> skills = knowsJava ? List.of("Java", "SQL") : List.of("Python");
+                        Applicant applicant = new TechApplicant("Worker" + thread + "-" + i,
+                                "w" + thread + "." + i + "@example.com", random.nextInt(15), skills, "Backend");
+                        atsService.addApplicant(applicant);
+                        if (applicantIds.add(applicant.getApplicantId()) && knowsJava) {
+                            javaApplicantIds.add(applicant.getApplicantId());
+                        }
+
+                        int jobIndex = random.nextInt(JOBS);
+                        atsService.acceptApplication(applicant, jobs.get(jobIndex));
+                        submittedPerJob.incrementAndGet(jobIndex);
+
+                        // Concurrently move some of this job's candidates along
+                        List<Application> top = atsService.topK(jobs.get(jobIndex).getJobId(), 3);
+                        if (!top.isEmpty() && random.nextBoolean()) {
+                            atsService.advanceStage(top.get(random.nextInt(top.size())).getApplicationId(), "Interview");
+                        }
+                        if (i % 50 == 0) {
+                            atsService.searchApplicants("Java", 5);
+                            atsService.searchApplicants("worker", "name");
+                            // A snapshot reads the same however long it is held, while intake goes on
+                            try (ApplicationSnapshot snapshot = atsService.snapshot()) {
+                                String jobId = jobs.get(jobIndex).getJobId();
+                                List<ApplicationVersion> first = snapshot.getApplications(jobId);
+                                Thread.yield();
+                                if (!first.equals(snapshot.getApplications(jobId))) {
+                                    changedSnapshots.incrementAndGet();
+                                }
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        List<String> failures = new ArrayList<>();
+        int totalApplications = THREADS * APPLICANTS_PER_THREAD;
+        check(failures, "applicant counter", THREADS * APPLICANTS_PER_THREAD, Applicant.getApplicantCount() - applicantsBefore);
+        check(failures, "application counter", totalApplications, Application.getApplicationCount() - applicationsBefore);
+
+        check(failures, "experience index size", applicantIds.size(), atsService.searchApplicants(Integer.MIN_VALUE).size());
+        check(failures, "skill index size", javaApplicantIds.size(), atsService.searchApplicants("Java").size());
+        check(failures, "name index size", applicantIds.size(), atsService.searchApplicants("worker", "name").size());
+        check(failures, "snapshots that changed while read", 0, changedSnapshots.get());
+        try (ApplicationSnapshot snapshot = atsService.snapshot()) {
+            for (int j = 0; j < JOBS; j++) {
+                String jobId = jobs.get(j).getJobId();
+                int[] stageCounts = atsService.getStageCounts(jobId);
+                int[] snapshotCounts = snapshot.getStageCounts(jobId);
+                int stageTotal = 0;
+                for (Stage stage : Stage.values()) {
+                    stageTotal += stageCounts[stage.ordinal()];
+                    check(failures, jobId + " " + stage + " bucket", stageCounts[stage.ordinal()],
+                          atsService.getApplicationsInStage(jobId, stage).size());
+                    check(failures, jobId + " " + stage + " in snapshot", stageCounts[stage.ordinal()],
+                          snapshotCounts[stage.ordinal()]);
+                }
+                check(failures, jobId + " stage counters", submittedPerJob.get(j), stageTotal);
+                check(failures, jobId + " leaderboard", submittedPerJob.get(j), atsService.rankByScore(jobId).size());
+            }
+        }
+
+        System.out.println("Stress run: " + THREADS + " threads, " + totalApplications + " applications across "
+                           + JOBS + " jobs in " + elapsedMs + " ms");
+        if (failures.isEmpty()) {
+            System.out.println("All consistency checks passed.");
+        } else {
+            failures.forEach(failure -> System.out.println("FAILED: " + failure));
+            System.exit(1);
+        }
+    }
+
+    private static void check(List<String> failures, String what, int expected, int actual) {
+        if (expected != actual) {
+            failures.add(what + " expected " + expected + " but was " + actual);
+        }
+    }
+}
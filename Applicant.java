@@ -1,29 +1,54 @@
-import java.util.UUID;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents a job applicant. This is the base class for inheritance.
  */
 public class Applicant {
-    private String applicantId;
+    private final long id;
     private String name;
     private String email;
     private int yearsOfExperience;
     private List<String> skills;
-    protected static int applicantCount = 0;
+    private static final AtomicInteger applicantCount = new AtomicInteger();
 
     public Applicant(String name, String email, int yearsOfExperience, List<String> skills) {
-        this.applicantId = "A-" + UUID.randomUUID().toString().substring(0, 6);
+        this(IdAllocator.APPLICANTS.next(), name, email, yearsOfExperience, skills);
+    }
+
+    /**
+     * Recreates an applicant with a known ID, e.g. when restoring persisted state.
+     */
+    public Applicant(long id, String name, String email, int yearsOfExperience, List<String> skills) {
+        this(id, name, email, yearsOfExperience, skills, true);
+    }
+
+    /**
+     * @param counted false for a copy read back from a {@link MappedApplicantStore}, which
+     *                is not a newly created applicant and leaves the ID allocator alone.
+     */
+    Applicant(long id, String name, String email, int yearsOfExperience, List<String> skills, boolean counted) {
+        this.id = id;
         this.name = name;
         this.email = email;
         this.yearsOfExperience = yearsOfExperience;
         this.skills = skills;
-        applicantCount++;
+        if (counted) {
+            IdAllocator.APPLICANTS.advancePast(id);
+            applicantCount.incrementAndGet();
+        }
     }
 
     // Getters
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * Returns the display form of the ID, e.g. "A-42".
+     */
     public String getApplicantId() {
-        return this.applicantId;
+        return "A-" + this.id;
     }
 
     public String getName() {
@@ -43,7 +68,7 @@ public class Applicant {
     }
 
     public static int getApplicantCount() {
-        return applicantCount;
+        return applicantCount.get();
     }
 
     // Setters
@@ -73,7 +98,7 @@ public class Applicant {
      * Prints a formatted summary of the applicant's profile.
      */
     public void printApplicantDetails() {
-        System.out.println("Applicant ID: " + this.applicantId);
+        System.out.println("Applicant ID: " + getApplicantId());
         System.out.println("Name: " + this.name);
         System.out.println("Email: " + this.email);
         System.out.println("Years of Experience: " + this.yearsOfExperience);
@@ -0,0 +1,158 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A lazily evaluated applicant search. Nothing is matched until a page, stream or count
+ * is asked for, and each page walks the index only as far as it needs, so memory scales
+ * with the page size rather than with the number of matches.
+ *
+ * Pages follow the order applicants were added. They can be fetched in sequence with
+ * {@link #nextPage(int)}, resumed from a token returned by an earlier page (keyset
+ * paging, stable under concurrent additions), or addressed by offset. Each page takes
+ * the applicant index read lock only while it is being filled.
+ */
+public class ApplicantCursor {
+    private static final int STREAM_PAGE_SIZE = 256;
+
+    private ReadWriteLock lock;
+    private Supplier<OrdinalCursor> query;
+    private IntFunction<Applicant> resolver;
+    private ServiceMetrics metrics;
+    // The ordinal nextPage() resumes from
+    private int position;
+
+    /**
+     * @param lock The applicant index lock.
+     * @param query Builds the index cursor for the search; called under the read lock.
+     * @param resolver Maps an ordinal to its applicant; called under the read lock.
+     * @param metrics Where page fetches are timed.
+     */
+    ApplicantCursor(ReadWriteLock lock, Supplier<OrdinalCursor> query, IntFunction<Applicant> resolver,
+                    ServiceMetrics metrics) {
+        this.lock = lock;
+        this.query = query;
+        this.resolver = resolver;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the next page, continuing where the previous call to this method stopped.
+     * @param limit The maximum number of applicants on the page.
+     */
+    public ResultPage<Applicant> nextPage(int limit) {
+        List<Applicant> items = new ArrayList<>(Math.max(0, limit));
+        position = fetch(position, 0, limit, items);
+        return new ResultPage<>(items, tokenFor(position));
+    }
+
+    /**
+     * Returns the page that starts at a token from an earlier page.
+     * @param pageToken The token, or null for the first page.
+     * @param limit The maximum number of applicants on the page.
+     * @throws IllegalArgumentException if the token did not come from an applicant page.
+     */
+    public ResultPage<Applicant> page(String pageToken, int limit) {
+        int from = 0;
+        if (pageToken != null) {
+            try {
+                from = Integer.parseInt(pageToken);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid page token: " + pageToken);
+            }
+        }
+        List<Applicant> items = new ArrayList<>(Math.max(0, limit));
+        int next = fetch(from, 0, limit, items);
+        return new ResultPage<>(items, tokenFor(next));
+    }
+
+    /**
+     * Returns the page after skipping a number of matches. Skipped matches are stepped
+     * over in the index without being materialized.
+     * @param offset The number of matches to skip.
+     * @param limit The maximum number of applicants on the page.
+     */
+    public ResultPage<Applicant> page(int offset, int limit) {
+        List<Applicant> items = new ArrayList<>(Math.max(0, limit));
+        int next = fetch(0, offset, limit, items);
+        return new ResultPage<>(items, tokenFor(next));
+    }
+
+    /**
+     * Returns every match as a lazy stream, fetched a page at a time as it is consumed.
+     */
+    public Stream<Applicant> stream() {
+        Spliterator<Applicant> pages = new Spliterators.AbstractSpliterator<Applicant>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL) {
+            private List<Applicant> buffer = new ArrayList<>(STREAM_PAGE_SIZE);
+            private int index;
+            private int next;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Applicant> action) {
+                if (index == buffer.size()) {
+                    if (next == OrdinalCursor.END) {
+                        return false;
+                    }
+                    buffer.clear();
+                    index = 0;
+                    next = fetch(next, 0, STREAM_PAGE_SIZE, buffer);
+                    if (buffer.isEmpty()) {
+                        return false;
+                    }
+                }
+                action.accept(buffer.get(index++));
+                return true;
+            }
+        };
+        return StreamSupport.stream(pages, false);
+    }
+
+    /**
+     * Counts the matches without materializing any applicant. Single-skill and
+     * whole-year experience searches are answered from posting sizes alone.
+     */
+    public long count() {
+        lock.readLock().lock();
+        try {
+            return query.get().count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Fills a page under the read lock.
+     * @return The ordinal of the first match after the page, or {@link OrdinalCursor#END}.
+     */
+    private int fetch(int from, int skip, int limit, List<Applicant> out) {
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            OrdinalCursor cursor = query.get();
+            int ordinal = from == OrdinalCursor.END ? OrdinalCursor.END : cursor.advance(from);
+            for (; ordinal != OrdinalCursor.END && skip > 0; skip--) {
+                ordinal = cursor.advance(ordinal + 1);
+            }
+            while (ordinal != OrdinalCursor.END && out.size() < limit) {
+                out.add(resolver.apply(ordinal));
+                ordinal = cursor.advance(ordinal + 1);
+            }
+            return ordinal;
+        } finally {
+            lock.readLock().unlock();
+            metrics.record(ServiceOperation.FETCH_APPLICANT_PAGE, start);
+        }
+    }
+
+    private static String tokenFor(int next) {
+        return next == OrdinalCursor.END ? null : Integer.toString(next);
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * An applicant paired with the job they are applying for, used for batch intake.
+ */
+public class ApplicantJobPair {
+    private Applicant applicant;
+    private Job job;
+
+    public ApplicantJobPair(Applicant applicant, Job job) {
+        this.applicant = applicant;
+        this.job = job;
+    }
+
+    public Applicant getApplicant() {
+        return this.applicant;
+    }
+
+    public Job getJob() {
+        return this.job;
+    }
+}
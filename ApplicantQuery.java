@@ -0,0 +1,242 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A search over several applicant criteria at once, e.g.
+ * {@code new ApplicantQuery().withSkill("Java").minYears(3).specialty("Backend")}.
+ * Every criterion must hold for an applicant to match, so contradictory criteria such as
+ * {@code fieldOfStudy("Business").techOnly()} match nobody.
+ *
+ * The query only describes what to match; {@link ATSService#searchApplicants(ApplicantQuery)}
+ * decides the order in which the criteria are checked, and
+ * {@link ATSService#explain(ApplicantQuery)} shows that order.
+ */
+public class ApplicantQuery {
+    private List<String> allSkills;
+    private List<List<String>> anySkillGroups;
+    private int minYears;
+    private int maxYears;
+    private String nameKeyword;
+    private String emailKeyword;
+    private List<Class<? extends Applicant>> types;
+    private String specialty;
+    private String fieldOfStudy;
+    private List<String> predicateDescriptions;
+    private List<Predicate<Applicant>> predicates;
+
+    public ApplicantQuery() {
+        this.allSkills = new ArrayList<>();
+        this.anySkillGroups = new ArrayList<>();
+        this.types = new ArrayList<>();
+        this.minYears = Integer.MIN_VALUE;
+        this.maxYears = Integer.MAX_VALUE;
+        this.predicateDescriptions = new ArrayList<>();
+        this.predicates = new ArrayList<>();
+    }
+
+    /**
+     * Requires a skill. Can be called more than once; every skill is then required.
+     */
+    public ApplicantQuery withSkill(String skill) {
+        allSkills.add(skill);
+        return this;
+    }
+
+    /**
+     * Requires at least one of the given skills.
+     */
+    public ApplicantQuery withAnySkill(Collection<String> skills) {
+        anySkillGroups.add(new ArrayList<>(skills));
+        return this;
+    }
+
+    /**
+     * Requires at least a number of years of experience.
+     */
+    public ApplicantQuery minYears(int minYears) {
+        this.minYears = minYears;
+        return this;
+    }
+
+    /**
+     * Requires at most a number of years of experience.
+     */
+    public ApplicantQuery maxYears(int maxYears) {
+        this.maxYears = maxYears;
+        return this;
+    }
+
+    /**
+     * Requires the name to contain a keyword, ignoring case.
+     */
+    public ApplicantQuery nameContains(String keyword) {
+        this.nameKeyword = keyword;
+        return this;
+    }
+
+    /**
+     * Requires the email to contain a keyword, ignoring case.
+     */
+    public ApplicantQuery emailContains(String keyword) {
+        this.emailKeyword = keyword;
+        return this;
+    }
+
+    /**
+     * Matches only technical applicants.
+     */
+    public ApplicantQuery techOnly() {
+        return requireType(TechApplicant.class);
+    }
+
+    /**
+     * Matches only non-technical applicants.
+     */
+    public ApplicantQuery nonTechOnly() {
+        return requireType(NonTechApplicant.class);
+    }
+
+    /**
+     * Requires a technical applicant with the given specialty, ignoring case.
+     */
+    public ApplicantQuery specialty(String specialty) {
+        this.specialty = specialty;
+        return this;
+    }
+
+    /**
+     * Requires a non-technical applicant with the given field of study, ignoring case.
+     */
+    public ApplicantQuery fieldOfStudy(String fieldOfStudy) {
+        this.fieldOfStudy = fieldOfStudy;
+        return this;
+    }
+
+    private ApplicantQuery requireType(Class<? extends Applicant> type) {
+        if (!types.contains(type)) {
+            types.add(type);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a custom check. Custom checks cannot use an index, so they run last.
+     * @param description How the check appears in query plans.
+     * @param predicate The check.
+     */
+    public ApplicantQuery where(String description, Predicate<Applicant> predicate) {
+        predicateDescriptions.add(description);
+        predicates.add(predicate);
+        return this;
+    }
+
+    /**
+     * Returns an independent copy, so a cursor keeps its criteria if this query is changed.
+     */
+    ApplicantQuery copy() {
+        ApplicantQuery copy = new ApplicantQuery();
+        copy.allSkills.addAll(this.allSkills);
+        copy.anySkillGroups.addAll(this.anySkillGroups);
+        copy.minYears = this.minYears;
+        copy.maxYears = this.maxYears;
+        copy.nameKeyword = this.nameKeyword;
+        copy.emailKeyword = this.emailKeyword;
+        copy.types.addAll(this.types);
+        copy.specialty = this.specialty;
+        copy.fieldOfStudy = this.fieldOfStudy;
+        copy.predicateDescriptions.addAll(this.predicateDescriptions);
+        copy.predicates.addAll(this.predicates);
+        return copy;
+    }
+
+    List<String> getAllSkills() {
+        return this.allSkills;
+    }
+
+    List<List<String>> getAnySkillGroups() {
+        return this.anySkillGroups;
+    }
+
+    int getMinYears() {
+        return this.minYears;
+    }
+
+    int getMaxYears() {
+        return this.maxYears;
+    }
+
+    boolean hasExperienceRange() {
+        return minYears != Integer.MIN_VALUE || maxYears != Integer.MAX_VALUE;
+    }
+
+    String getNameKeyword() {
+        return this.nameKeyword;
+    }
+
+    String getEmailKeyword() {
+        return this.emailKeyword;
+    }
+
+    List<Class<? extends Applicant>> getTypes() {
+        return this.types;
+    }
+
+    String getSpecialty() {
+        return this.specialty;
+    }
+
+    String getFieldOfStudy() {
+        return this.fieldOfStudy;
+    }
+
+    List<String> getPredicateDescriptions() {
+        return this.predicateDescriptions;
+    }
+
+    List<Predicate<Applicant>> getPredicates() {
+        return this.predicates;
+    }
+
+    @Override
+    public String toString() {
+        List<String> parts = new ArrayList<>();
+        for (String skill : allSkills) {
+            parts.add("skill = " + skill);
+        }
+        for (List<String> group : anySkillGroups) {
+            parts.add("skill in " + group);
+        }
+        if (hasExperienceRange()) {
+            parts.add(describeYears(minYears, maxYears));
+        }
+        if (nameKeyword != null) {
+            parts.add("name contains '" + nameKeyword + "'");
+        }
+        if (emailKeyword != null) {
+            parts.add("email contains '" + emailKeyword + "'");
+        }
+        for (Class<? extends Applicant> type : types) {
+            parts.add("type = " + type.getSimpleName());
+        }
+        if (specialty != null) {
+            parts.add("specialty = " + specialty);
+        }
+        if (fieldOfStudy != null) {
+            parts.add("field of study = " + fieldOfStudy);
+        }
+        parts.addAll(predicateDescriptions);
+        return parts.isEmpty() ? "all applicants" : String.join(" AND ", parts);
+    }
+
+    static String describeYears(int minYears, int maxYears) {
+        if (maxYears == Integer.MAX_VALUE) {
+            return "years >= " + minYears;
+        }
+        if (minYears == Integer.MIN_VALUE) {
+            return "years <= " + maxYears;
+        }
+        return "years " + minYears + ".." + maxYears;
+    }
+}
@@ -1,31 +1,50 @@
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents an application for a job by a specific applicant.
  * Demonstrates encapsulation for managing the application stage and score.
  */
 public class Application {
-    private String applicationId;
+    private final long id;
     private Applicant applicant;
     private Job job;
-    private String stage; // e.g., "Applied", "Screening", "Interview", "Offer"
-    private int score;
-    private String remarks;
-    private static int applicationCount = 0;
+    // Volatile so reports on other threads see the latest stage, score and remarks
+    private volatile Stage stage;
+    private volatile int score;
+    private volatile String remarks;
+    private volatile ScoreListener scoreListener;
+    // The versions kept for snapshots by the store of the service that holds this application
+    private volatile VersionedApplicationStore.Chain versionChain;
+    private static final AtomicInteger applicationCount = new AtomicInteger();
 
     public Application(Applicant applicant, Job job) {
-        this.applicationId = "APP-" + UUID.randomUUID().toString().substring(0, 6);
+        this(IdAllocator.APPLICATIONS.next(), applicant, job, Stage.APPLIED, 0, "Initial Application");
+    }
+
+    /**
+     * Recreates an application with a known ID and state, e.g. when restoring persisted state.
+     */
+    public Application(long id, Applicant applicant, Job job, Stage stage, int score, String remarks) {
+        IdAllocator.APPLICATIONS.advancePast(id);
+        this.id = id;
         this.applicant = applicant;
         this.job = job;
-        this.stage = "Applied";
-        this.score = 0;
-        this.remarks = "Initial Application";
-        applicationCount++;
+        this.stage = stage;
+        this.score = score;
+        this.remarks = remarks;
+        applicationCount.incrementAndGet();
     }
 
     // Getters
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * Returns the display form of the ID, e.g. "APP-42".
+     */
     public String getApplicationId() {
-        return this.applicationId;
+        return "APP-" + this.id;
     }
 
     public Applicant getApplicant() {
@@ -37,6 +56,10 @@ public class Application {
     }
 
     public String getStage() {
+        return this.stage.getDisplayName();
+    }
+
+    public Stage getPipelineStage() {
         return this.stage;
     }
 
@@ -49,19 +72,56 @@ public class Application {
     }
 
     public static int getApplicationCount() {
-        return applicationCount;
+        return applicationCount.get();
     }
 
     // Setters
-    public void setStage(String stage) {
+    /**
+     * Sets the stage by name. Package-private like {@link #setStage(Stage)}: stage changes
+     * go through ATSService.advanceStage, so the job pipeline and stage history follow them.
+     * @param stage The stage name (e.g., "Screening").
+     * @throws IllegalArgumentException if the name is not a registered {@link Stage}.
+     */
+    void setStage(String stage) {
+        Stage parsed = Stage.fromName(stage);
+        if (parsed == null) {
+            throw new IllegalArgumentException("Unknown stage: " + stage);
+        }
+        this.stage = parsed;
+    }
+
+    /**
+     * Sets the stage without updating the job pipeline; only {@link JobPipeline} and intake call it.
+     */
+    void setStage(Stage stage) {
         this.stage = stage;
     }
 
     public void setScore(int score) {
+        int oldScore = this.score;
         this.score = score;
+        if (this.scoreListener != null && oldScore != score) {
+            this.scoreListener.scoreChanged(this, oldScore);
+        }
     }
 
     public void setRemarks(String remarks) {
         this.remarks = remarks;
     }
+
+    /**
+     * Registers the listener to notify when the score changes, e.g. the job's leaderboard.
+     * @param scoreListener The listener, or null to stop notifications.
+     */
+    public void setScoreListener(ScoreListener scoreListener) {
+        this.scoreListener = scoreListener;
+    }
+
+    VersionedApplicationStore.Chain getVersionChain() {
+        return this.versionChain;
+    }
+
+    void setVersionChain(VersionedApplicationStore.Chain versionChain) {
+        this.versionChain = versionChain;
+    }
 }
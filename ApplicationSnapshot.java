@@ -0,0 +1,131 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A consistent, point-in-time view of every application, opened with
+ * {@link ATSService#snapshot()}. Everything accepted, moved or rescored before it was
+ * opened is visible and nothing after, however long it is read and from however many
+ * threads; intake carries on meanwhile without waiting for it.
+ *
+ * Applications are returned as {@link ApplicationVersion}s, which hold the stage, score and
+ * remarks as of the snapshot. Close the snapshot once done with it: the versions only it
+ * still reads are reclaimed then.
+ */
+public class ApplicationSnapshot implements AutoCloseable {
+    private static final Stage[] STAGES = Stage.values();
+    private static final Comparator<ApplicationVersion> RANK_ORDER =
+            Comparator.comparingInt(ApplicationVersion::getScore).reversed()
+                      .thenComparingLong(version -> version.getApplication().getId());
+
+    private VersionedApplicationStore store;
+    // 0 until the snapshot is fully opened
+    private volatile long version;
+    private volatile boolean closed;
+
+    ApplicationSnapshot(VersionedApplicationStore store) {
+        this.store = store;
+    }
+
+    void pin(long version) {
+        this.version = version;
+    }
+
+    long getPinnedVersion() {
+        return this.version;
+    }
+
+    /**
+     * Returns the store version this snapshot reads as of.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Returns the applications for a job, in submission order.
+     * @param jobId The job ID.
+     * @return The applications; empty for a job unknown at this snapshot.
+     */
+    public List<ApplicationVersion> getApplications(String jobId) {
+        checkOpen();
+        return store.applicationsForJob(IdAllocator.parse(jobId, "J-"), version);
+    }
+
+    /**
+     * Returns the applications for a job in each stage, each in the order they entered it.
+     * @param jobId The job ID.
+     * @return One list per stage, indexed by {@link Stage#ordinal()}.
+     */
+    public List<List<ApplicationVersion>> getPipeline(String jobId) {
+        List<List<ApplicationVersion>> stages = new ArrayList<>(STAGES.length);
+        for (int i = 0; i < STAGES.length; i++) {
+            stages.add(new ArrayList<>());
+        }
+        for (ApplicationVersion application : getApplications(jobId)) {
+            stages.get(application.getPipelineStage().ordinal()).add(application);
+        }
+        // Versions of a job are claimed in order, so this is the order the live pipeline keeps
+        for (List<ApplicationVersion> stage : stages) {
+            stage.sort(Comparator.comparingLong(ApplicationVersion::getStageVersion));
+        }
+        return stages;
+    }
+
+    /**
+     * Returns the number of applications for a job in each stage.
+     * @return Stage counts indexed by {@link Stage#ordinal()}.
+     */
+    public int[] getStageCounts(String jobId) {
+        int[] counts = new int[STAGES.length];
+        for (ApplicationVersion application : getApplications(jobId)) {
+            counts[application.getPipelineStage().ordinal()]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Ranks the applications for a job by score, best first, in the same order as
+     * {@link ATSService#rankByScore(String)}.
+     */
+    public List<ApplicationVersion> rankByScore(String jobId) {
+        List<ApplicationVersion> ranking = getApplications(jobId);
+        ranking.sort(RANK_ORDER);
+        return ranking;
+    }
+
+    /**
+     * Streams every application of every job. Consume the stream before closing the snapshot.
+     */
+    public Stream<ApplicationVersion> stream() {
+        checkOpen();
+        return store.stream(version, false);
+    }
+
+    /**
+     * Streams every application of every job, split for a parallel scan. Consume the stream
+     * before closing the snapshot.
+     */
+    public Stream<ApplicationVersion> parallelStream() {
+        checkOpen();
+        return store.stream(version, true);
+    }
+
+    /**
+     * Releases the snapshot. Reading it afterwards throws IllegalStateException.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            store.close(this);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The snapshot is closed");
+        }
+    }
+}
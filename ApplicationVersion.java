@@ -0,0 +1,89 @@
+/**
+ * The state of an application as of one version of the application store: its stage,
+ * score and remarks, frozen when they were written. Snapshots hand these out instead of
+ * the live {@link Application}, whose fields may change while a report is being built.
+ *
+ * Versions of one application are chained newest first, so a reader walks back to the
+ * newest version its snapshot can see.
+ */
+public class ApplicationVersion {
+    private final long version;
+    private final Application application;
+    private final Stage stage;
+    // The version in which the application entered its current stage
+    private final long stageVersion;
+    private final int score;
+    private final String remarks;
+    // Cut off once no open snapshot can need the older versions
+    private volatile ApplicationVersion older;
+
+    ApplicationVersion(long version, Application application, long stageVersion, ApplicationVersion older) {
+        this.version = version;
+        this.application = application;
+        this.stage = application.getPipelineStage();
+        this.stageVersion = stageVersion;
+        this.score = application.getScore();
+        this.remarks = application.getRemarks();
+        this.older = older;
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public Application getApplication() {
+        return this.application;
+    }
+
+    public String getApplicationId() {
+        return this.application.getApplicationId();
+    }
+
+    public Applicant getApplicant() {
+        return this.application.getApplicant();
+    }
+
+    public Job getJob() {
+        return this.application.getJob();
+    }
+
+    public String getStage() {
+        return this.stage.getDisplayName();
+    }
+
+    public Stage getPipelineStage() {
+        return this.stage;
+    }
+
+    public long getStageVersion() {
+        return this.stageVersion;
+    }
+
+    public int getScore() {
+        return this.score;
+    }
+
+    public String getRemarks() {
+        return this.remarks;
+    }
+
+    ApplicationVersion getOlder() {
+        return this.older;
+    }
+
+    void setOlder(ApplicationVersion older) {
+        this.older = older;
+    }
+
+    /**
+     * Returns the newest version in this chain that a snapshot at the given version sees.
+     * @return The version, or null if the application did not exist yet at that version.
+     */
+    ApplicationVersion asOf(long snapshotVersion) {
+        ApplicationVersion current = this;
+        while (current != null && current.version > snapshotVersion) {
+            current = current.older;
+        }
+        return current;
+    }
+}
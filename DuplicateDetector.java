@@ -0,0 +1,190 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Rejects duplicates on intake: a second applicant with an email that is already
+ * registered, and a second application by the same applicant for the same job.
+ *
+ * Keys are held in concurrent hash sets. Registering a key is a single insert that also
+ * reports whether the key was already there, so a new key costs one hash probe and a
+ * duplicate is caught by the same probe; no separate lookup or pre-filter is needed.
+ *
+ * Emails are compared trimmed and lowercased, and are keyed by their 64-bit
+ * {@link #emailHash}, so no copy of the email is kept. On a hash match the two emails are
+ * compared in full, the registered one read back through the applicant's id; a different
+ * email with the same hash is then kept in full in a side map that is practically always
+ * empty. Every method is safe to call concurrently, and registering is atomic: of two
+ * racing registrations of one key, exactly one wins.
+ */
+public class DuplicateDetector {
+    private Map<Long, Long> applicantIdsByEmailHash;
+    private Map<String, Long> collidedEmails;
+    private LongFunction<String> emailOfApplicant;
+    private Map<Long, Set<Long>> applicantIdsByJob;
+    private AtomicLong rejectedApplicants;
+    private AtomicLong rejectedApplications;
+
+    /**
+     * Creates a detector that takes a matching email hash to mean a matching email.
+     */
+    public DuplicateDetector() {
+        this(applicantId -> null);
+    }
+
+    /**
+     * @param emailOfApplicant The current email of a registered applicant, to tell two
+     *                         emails with the same hash apart; null while the applicant is
+     *                         still being added, in which case the emails count as the same.
+     */
+    public DuplicateDetector(LongFunction<String> emailOfApplicant) {
+        this.applicantIdsByEmailHash = new ConcurrentHashMap<>();
+        this.collidedEmails = new ConcurrentHashMap<>();
+        this.emailOfApplicant = emailOfApplicant;
+        this.applicantIdsByJob = new ConcurrentHashMap<>();
+        this.rejectedApplicants = new AtomicLong();
+        this.rejectedApplications = new AtomicLong();
+    }
+
+    /**
+     * Registers the email of a new applicant.
+     * @return true if no applicant had the email yet; false, counted as a rejection, if one did.
+     */
+    public boolean registerEmail(String email, long applicantId) {
+        if (putIfAbsent(normalizeEmail(email), applicantId) != null) {
+            rejectedApplicants.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Moves an applicant's registration to a new email, e.g. after an update. Call it
+     * before the applicant's email changes.
+     * @return true if the applicant is now registered under the new email; false, counted
+     *         as a rejection, if another applicant has it. The old registration is kept then.
+     */
+    public boolean changeEmail(String oldEmail, String newEmail, long applicantId) {
+        String key = normalizeEmail(newEmail);
+        String oldKey = normalizeEmail(oldEmail);
+        if (key.equals(oldKey)) {
+            return true;
+        }
+        Long owner = putIfAbsent(key, applicantId);
+        if (owner != null && owner != applicantId) {
+            rejectedApplicants.incrementAndGet();
+            return false;
+        }
+        remove(oldKey, applicantId);
+        return true;
+    }
+
+    /**
+     * Drops an applicant's email registration, e.g. once another shard owns the email.
+     */
+    public void forgetEmail(String email, long applicantId) {
+        remove(normalizeEmail(email), applicantId);
+    }
+
+    /**
+     * Counts an applicant rejected as a duplicate by a check other than its email.
+     */
+    public void countRejectedApplicant() {
+        rejectedApplicants.incrementAndGet();
+    }
+
+    /**
+     * Returns the ids of the applicants whose emails are registered here.
+     */
+    public List<Long> registeredApplicantIds() {
+        List<Long> ids = new ArrayList<>(applicantIdsByEmailHash.values());
+        ids.addAll(collidedEmails.values());
+        return ids;
+    }
+
+    // Takes a normalized email for an applicant; returns the applicant that already had it, if any
+    private Long putIfAbsent(String key, long applicantId) {
+        Long collided = collidedEmails.isEmpty() ? null : collidedEmails.get(key);
+        if (collided != null) {
+            return collided;
+        }
+        Long owner = applicantIdsByEmailHash.putIfAbsent(emailHash(key), applicantId);
+        if (owner == null || sameEmail(owner, key)) {
+            return owner;
+        }
+        return collidedEmails.putIfAbsent(key, applicantId);
+    }
+
+    private void remove(String key, long applicantId) {
+        if (collidedEmails.isEmpty() || !collidedEmails.remove(key, applicantId)) {
+            applicantIdsByEmailHash.remove(emailHash(key), applicantId);
+        }
+    }
+
+    private boolean sameEmail(long applicantId, String key) {
+        String email = emailOfApplicant.apply(applicantId);
+        return email == null || normalizeEmail(email).equals(key);
+    }
+
+    /**
+     * Registers an application of an applicant for a job.
+     * @return true if the applicant had not applied to the job yet; false, counted as a
+     *         rejection, if they had.
+     */
+    public boolean registerApplication(long applicantId, long jobId) {
+        Set<Long> applicants = applicantIdsByJob.get(jobId);
+        if (applicants == null) {
+            applicants = applicantIdsByJob.computeIfAbsent(jobId, id -> ConcurrentHashMap.newKeySet());
+        }
+        if (!applicants.add(applicantId)) {
+            rejectedApplications.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Forgets the applications of a job, e.g. once it has moved to another shard.
+     */
+    public void forgetJob(long jobId) {
+        applicantIdsByJob.remove(jobId);
+    }
+
+    public long getRejectedApplicants() {
+        return rejectedApplicants.get();
+    }
+
+    public long getRejectedApplications() {
+        return rejectedApplications.get();
+    }
+
+    /**
+     * Returns the form emails are compared in: trimmed and lowercased.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Hashes a normalized email to 64 bits (FNV-1a, then mixed).
+     */
+    public static long emailHash(String normalizedEmail) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < normalizedEmail.length(); i++) {
+            hash = (hash ^ normalizedEmail.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    // The SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,220 @@
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous event channel for the service's progress messages.
+ *
+ * Callers never format or do I/O: {@link #log} claims a slot in a fixed ring buffer with
+ * one atomic increment, stores the event type and its arguments, and publishes the slot.
+ * A single background writer expands the templates and hands the lines to an
+ * {@link EventSink} in batches. If the sink falls a whole ring behind, callers wait for
+ * a slot rather than drop events.
+ *
+ * In quiet mode everything but warnings is discarded before touching the ring, which
+ * makes logging close to free during bulk imports.
+ *
+ * Arguments are formatted after the call returns, so pass immutable values (strings,
+ * stages, reports) rather than objects that may still change.
+ */
+public class EventLog implements AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+    private static final int MAX_BATCH = 1024;
+    // How long the writer sleeps when the ring is empty; flush() wakes it early
+    private static final long IDLE_PARK_NANOS = 5_000_000;
+    private static final long FLUSH_POLL_NANOS = 50_000;
+    // How long a caller backs off when the ring is full
+    private static final long FULL_PARK_NANOS = 10_000;
+
+    private static EventLog shared;
+
+    private EventSink sink;
+    private Slot[] slots;
+    private int mask;
+    // published[i] holds sequence + 1 of the event in slot i once it is fully written
+    private AtomicLongArray published;
+    // The next sequence to hand to a caller
+    private AtomicLong claimed;
+    // Every event below this sequence has been formatted and its slot can be reused
+    private volatile long consumed;
+    // Every event below this sequence has reached the sink
+    private volatile long written;
+    private volatile boolean quiet;
+    private volatile boolean closed;
+    private Thread writer;
+
+    /**
+     * Creates a log and starts its writer thread.
+     * @param sink Where formatted events go.
+     * @param capacity The number of ring slots; rounded up to a power of two.
+     */
+    public EventLog(EventSink sink, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.sink = sink;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            this.slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        this.claimed = new AtomicLong();
+        this.writer = new Thread(this::drain, "ats-event-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public EventLog(EventSink sink) {
+        this(sink, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Returns the process-wide log that writes to System.out, which services use unless
+     * given their own. Pending events are flushed when the JVM exits.
+     */
+    public static synchronized EventLog shared() {
+        if (shared == null) {
+            shared = new EventLog(EventSink.of(System.out));
+            Runtime.getRuntime().addShutdownHook(new Thread(shared::flush, "ats-event-flush"));
+        }
+        return shared;
+    }
+
+    public void log(EventType type, Object a) {
+        log(type, a, null, 0, 0);
+    }
+
+    public void log(EventType type, Object a, Object b) {
+        log(type, a, b, 0, 0);
+    }
+
+    public void log(EventType type, long n) {
+        log(type, null, null, n, 0);
+    }
+
+    public void log(EventType type, long n, long m) {
+        log(type, null, null, n, m);
+    }
+
+    public void log(EventType type, Object a, long n) {
+        log(type, a, null, n, 0);
+    }
+
+    /**
+     * Records an event; it is formatted and written later by the writer thread.
+     * @param type The event, which decides how the arguments are formatted.
+     */
+    public void log(EventType type, Object a, Object b, long n, long m) {
+        if ((quiet && !type.isWarning()) || closed) {
+            return;
+        }
+        long seq = claimed.getAndIncrement();
+        // Wait for the writer to free the slot; only happens when the sink cannot keep up
+        if (seq - consumed >= slots.length) {
+            LockSupport.unpark(writer);
+            while (seq - consumed >= slots.length) {
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+        }
+        int index = (int) seq & mask;
+        Slot slot = slots[index];
+        slot.type = type;
+        slot.a = a;
+        slot.b = b;
+        slot.n = n;
+        slot.m = m;
+        published.setRelease(index, seq + 1);
+    }
+
+    /**
+     * Turns quiet mode on or off. While quiet, only warnings are recorded.
+     */
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    public boolean isQuiet() {
+        return this.quiet;
+    }
+
+    /**
+     * Returns the number of events recorded but not yet written to the sink.
+     */
+    public long getPending() {
+        return Math.max(0, claimed.get() - written);
+    }
+
+    /**
+     * Waits until every event recorded before this call has been written to the sink,
+     * e.g. before printing something that must appear after them.
+     */
+    public void flush() {
+        long target = claimed.get();
+        while (written < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(FLUSH_POLL_NANOS);
+        }
+    }
+
+    /**
+     * Writes out any pending events, stops the writer and closes the sink.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sink.close();
+    }
+
+    /**
+     * The writer loop: formats published events in order and writes them in batches.
+     */
+    private void drain() {
+        StringBuilder batch = new StringBuilder(8192);
+        String newline = System.lineSeparator();
+        long next = 0;
+        while (true) {
+            int count = 0;
+            while (count < MAX_BATCH && published.getAcquire((int) next & mask) == next + 1) {
+                Slot slot = slots[(int) next & mask];
+                slot.type.format(batch, slot.a, slot.b, slot.n, slot.m);
+                batch.append(newline);
+                slot.a = null;
+                slot.b = null;
+                next++;
+                count++;
+            }
+            if (count > 0) {
+                consumed = next;
+                try {
+                    sink.write(batch);
+                    sink.flush();
+                } catch (IOException e) {
+                    System.err.println("Event sink failed: " + e.getMessage());
+                }
+                batch.setLength(0);
+                written = next;
+            } else if (closed && next == claimed.get()) {
+                return;
+            } else {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * One ring entry; written by the caller that claimed it, then read by the writer.
+     */
+    private static class Slot {
+        private EventType type;
+        private Object a;
+        private Object b;
+        private long n;
+        private long m;
+    }
+}
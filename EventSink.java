@@ -0,0 +1,70 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Destination for the formatted lines drained from an {@link EventLog}. Only the log's
+ * writer thread calls it, one batch of lines at a time.
+ */
+public interface EventSink extends Closeable {
+    /**
+     * Writes a batch of formatted events, each terminated by a line separator.
+     */
+    void write(CharSequence lines) throws IOException;
+
+    /**
+     * Pushes anything buffered to its destination; called after each batch.
+     */
+    default void flush() throws IOException {
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * Returns a sink that prints to a stream, e.g. System.out.
+     */
+    static EventSink of(PrintStream out) {
+        return new EventSink() {
+            @Override
+            public void write(CharSequence lines) {
+                out.append(lines);
+            }
+
+            @Override
+            public void flush() {
+                out.flush();
+            }
+        };
+    }
+
+    /**
+     * Returns a sink that appends to a file, creating it if needed.
+     */
+    static EventSink toFile(Path file) throws IOException {
+        Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                                                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return new EventSink() {
+            @Override
+            public void write(CharSequence lines) throws IOException {
+                writer.append(lines);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                writer.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,94 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The events the service reports, each with the message template it is formatted with.
+ * Placeholders {a} and {b} take the event's two object arguments and {n} and {m} its two
+ * numeric ones. Templates are only expanded on the {@link EventLog} writer thread.
+ */
+public enum EventType {
+    JOB_POSTED("Job '{a}' posted successfully."),
+    JOB_UPDATED("Job '{a}' updated successfully."),
+    JOB_NOT_FOUND("Job with ID {a} not found.", true),
+    JOB_RESCORED("{a}"),
+    APPLICANT_ADDED("Applicant '{a}' added successfully."),
+    APPLICANT_UPDATED("Applicant '{a}' updated successfully."),
+    APPLICANT_NOT_FOUND("Applicant with ID {a} not found.", true),
+    DUPLICATE_APPLICANT("Applicant '{a}' not added: email {b} is already registered."),
+    DUPLICATE_EMAIL("Applicant '{a}' not updated: email {b} is already registered."),
+    APPLICATION_SUBMITTED("Application submitted for {a} for job {b}."),
+    APPLICATIONS_ACCEPTED("Accepted {n} applications across {m} jobs."),
+    DUPLICATE_APPLICATION("Application from {a} for job {b} not accepted: already applied."),
+    DUPLICATES_SKIPPED("Skipped {n} duplicate applications."),
+    APPLICATION_NOT_FOUND("Application with ID {a} not found.", true),
+    STAGE_ADVANCED("Application for {a} advanced to stage: {b}"),
+    UNKNOWN_STAGE("Unknown stage: {a}", true),
+    SEARCH_BY_SKILL("Searching applicants by skill: {a}"),
+    SEARCH_ALL_SKILLS("Searching applicants with all skills: {a}"),
+    SEARCH_ANY_SKILL("Searching applicants with any skill of: {a}"),
+    SEARCH_MIN_EXPERIENCE("Searching applicants with at least {n} years of experience."),
+    SEARCH_EXPERIENCE_RANGE("Searching applicants with {n} to {m} years of experience."),
+    SEARCH_SKILL_AND_EXPERIENCE("Searching applicants by skill: {a} with at least {n} years of experience."),
+    SEARCH_KEYWORD("Searching applicants by keyword '{a}' in {b} field."),
+    SEARCH_QUERY("Searching applicants where {a}"),
+    RANKING("Ranking applicants for job ID: {a}"),
+    SHARD_ADDED("Shard {a} added; {n} jobs and {m} applicant emails moved to it."),
+    SNAPSHOT_FAILED("Snapshot failed: {a}", true),
+    RECOVERED("{a}");
+
+    // The template split around its placeholders: literals[i] is followed by slots[i]
+    private final String[] literals;
+    private final char[] slots;
+    private final boolean warning;
+
+    EventType(String template) {
+        this(template, false);
+    }
+
+    EventType(String template, boolean warning) {
+        this.warning = warning;
+        List<String> literals = new ArrayList<>();
+        StringBuilder slots = new StringBuilder();
+        int start = 0;
+        int open;
+        while ((open = template.indexOf('{', start)) >= 0) {
+            literals.add(template.substring(start, open));
+            slots.append(template.charAt(open + 1));
+            start = open + 3;
+        }
+        literals.add(template.substring(start));
+        this.literals = literals.toArray(new String[0]);
+        this.slots = slots.toString().toCharArray();
+    }
+
+    /**
+     * Warnings are still reported when the log is in quiet mode.
+     */
+    public boolean isWarning() {
+        return this.warning;
+    }
+
+    /**
+     * Appends the message for one occurrence of this event.
+     */
+    void format(StringBuilder out, Object a, Object b, long n, long m) {
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            switch (slots[i]) {
+                case 'a':
+                    out.append(a);
+                    break;
+                case 'b':
+                    out.append(b);
+                    break;
+                case 'n':
+                    out.append(n);
+                    break;
+                default:
+                    out.append(m);
+                    break;
+            }
+        }
+        out.append(literals[slots.length]);
+    }
+}
@@ -0,0 +1,147 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index of applicants by years of experience. Experience is a small bounded int,
+ * so applicants are kept in one ordinal bucket per year plus an overflow bucket
+ * for anything beyond {@link #MAX_TRACKED_YEARS}. A per-ordinal experience column
+ * lets other indexes filter their candidates without touching Applicant objects.
+ */
+public class ExperienceIndex {
+    public static final int MAX_TRACKED_YEARS = 50;
+
+    private OrdinalList[] buckets;
+    private int[] experienceByOrdinal;
+
+    public ExperienceIndex() {
+        // Buckets 0..MAX_TRACKED_YEARS-1 hold exact years; the last bucket holds the rest
+        this.buckets = new OrdinalList[MAX_TRACKED_YEARS + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new OrdinalList();
+        }
+        this.experienceByOrdinal = new int[16];
+    }
+
+    /**
+     * Indexes an applicant's experience.
+     * @param ordinal The applicant ordinal; must be the next ordinal after the last one added.
+     * @param years The applicant's years of experience.
+     */
+    public void add(int ordinal, int years) {
+        if (ordinal >= experienceByOrdinal.length) {
+            experienceByOrdinal = Arrays.copyOf(experienceByOrdinal, Math.max(ordinal + 1, experienceByOrdinal.length * 2));
+        }
+        experienceByOrdinal[ordinal] = years;
+        buckets[bucketOf(years)].add(ordinal);
+    }
+
+    /**
+     * Returns the years of experience recorded for an applicant ordinal.
+     */
+    public int yearsOf(int ordinal) {
+        return this.experienceByOrdinal[ordinal];
+    }
+
+    /**
+     * Returns the ordinals of applicants whose experience is within [minYears, maxYears].
+     * @return A sorted array of ordinals.
+     */
+    public int[] query(int minYears, int maxYears) {
+        if (minYears > maxYears) {
+            return new int[0];
+        }
+        int first = bucketOf(minYears);
+        int last = bucketOf(maxYears);
+        int[] result = new int[countBuckets(first, last)];
+        int n = 0;
+        for (int b = first; b <= last; b++) {
+            OrdinalList bucket = buckets[b];
+            boolean exact = b < MAX_TRACKED_YEARS && b > 0;
+            for (int i = 0; i < bucket.size(); i++) {
+                int ordinal = bucket.get(i);
+                // Edge buckets may hold values outside the range and need checking
+                if (exact || inRange(ordinal, minYears, maxYears)) {
+                    result[n++] = ordinal;
+                }
+            }
+        }
+        result = Arrays.copyOf(result, n);
+        if (first != last) {
+            Arrays.sort(result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns an upper bound on the number of applicants within [minYears, maxYears],
+     * read straight off the bucket sizes. It is exact unless the range touches the
+     * overflow bucket or negative values.
+     */
+    public int estimateCount(int minYears, int maxYears) {
+        if (minYears > maxYears) {
+            return 0;
+        }
+        return countBuckets(bucketOf(minYears), bucketOf(maxYears));
+    }
+
+    /**
+     * Returns a lazy cursor over the applicants whose experience is within [minYears, maxYears].
+     * Its size is known up front unless the range only partly covers an edge bucket.
+     */
+    public OrdinalCursor cursor(int minYears, int maxYears) {
+        List<OrdinalCursor> cursors = new ArrayList<>();
+        if (minYears <= maxYears) {
+            for (int b = bucketOf(minYears); b <= bucketOf(maxYears); b++) {
+                OrdinalCursor bucket = OrdinalCursor.of(buckets[b]);
+                // The first and overflow buckets hold open-ended values and need checking,
+                // unless the range is open-ended on that side too
+                boolean coversLow = b > 0 || (minYears == Integer.MIN_VALUE && maxYears >= 0);
+                boolean coversHigh = b < MAX_TRACKED_YEARS || (maxYears == Integer.MAX_VALUE && minYears <= MAX_TRACKED_YEARS);
+                cursors.add(coversLow && coversHigh ? bucket
+                                                    : OrdinalCursor.filter(bucket, ordinal -> inRange(ordinal, minYears, maxYears)));
+            }
+        }
+        return OrdinalCursor.or(cursors, true);
+    }
+
+    /**
+     * Checks whether an applicant's experience is within [minYears, maxYears].
+     */
+    public boolean matches(int ordinal, int minYears, int maxYears) {
+        return inRange(ordinal, minYears, maxYears);
+    }
+
+    /**
+     * Keeps only the ordinals whose experience is within [minYears, maxYears].
+     * @param ordinals Sorted ordinals from another index.
+     * @return The matching ordinals, still sorted.
+     */
+    public int[] filter(int[] ordinals, int minYears, int maxYears) {
+        int[] result = new int[ordinals.length];
+        int n = 0;
+        for (int ordinal : ordinals) {
+            if (inRange(ordinal, minYears, maxYears)) {
+                result[n++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private boolean inRange(int ordinal, int minYears, int maxYears) {
+        int years = experienceByOrdinal[ordinal];
+        return years >= minYears && years <= maxYears;
+    }
+
+    private int countBuckets(int first, int last) {
+        int count = 0;
+        for (int b = first; b <= last; b++) {
+            count += buckets[b].size();
+        }
+        return count;
+    }
+
+    private static int bucketOf(int years) {
+        return Math.max(0, Math.min(years, MAX_TRACKED_YEARS));
+    }
+}
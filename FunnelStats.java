@@ -0,0 +1,51 @@
+/**
+ * How many applications reached each stage of the pipeline, for one job or department.
+ * An application counts as having reached every stage up to the furthest one it was ever
+ * moved to, so skipped stages count as passed and moving back does not undo progress.
+ */
+public class FunnelStats {
+    private static final Stage[] STAGES = Stage.values();
+
+    private String scope;
+    private long[] reached;
+
+    public FunnelStats(String scope, long[] reached) {
+        this.scope = scope;
+        this.reached = reached;
+    }
+
+    /**
+     * Returns what the figures cover, e.g. "job J-7" or "department Engineering".
+     */
+    public String getScope() {
+        return this.scope;
+    }
+
+    /**
+     * Returns the number of applications that reached a stage.
+     */
+    public long getReached(Stage stage) {
+        return this.reached[stage.ordinal()];
+    }
+
+    /**
+     * Returns the share of applications that reached one stage and went on to reach another.
+     * @return A rate from 0 to 1, or 0 if no application reached the first stage.
+     */
+    public double getConversionRate(Stage from, Stage to) {
+        long base = reached[from.ordinal()];
+        return base == 0 ? 0 : (double) reached[to.ordinal()] / base;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder("Funnel for ").append(scope).append(':');
+        for (int i = 0; i < STAGES.length; i++) {
+            out.append(' ').append(STAGES[i]).append('=').append(reached[i]);
+            if (i > 0) {
+                out.append(String.format(" (%.1f%%)", 100 * getConversionRate(STAGES[i - 1], STAGES[i])));
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out monotonically increasing numeric ids for one entity type.
+ *
+ * By default ids come straight from a local atomic counter. When several nodes write,
+ * each node's allocator can instead draw blocks of ids from a shared {@link IdBlockSource}
+ * (for example another IdAllocator acting as the cluster-wide sequence), so nodes never
+ * hand out the same id and only contact the source once per block. Within a block, ids
+ * are handed out with a single atomic increment.
+ *
+ * Entities keep only the numeric id; the external string forms ("A-", "J-", "APP-")
+ * are derived from it when displayed.
+ */
+public class IdAllocator implements IdBlockSource {
+    public static final IdAllocator APPLICANTS = new IdAllocator();
+    public static final IdAllocator JOBS = new IdAllocator();
+    public static final IdAllocator APPLICATIONS = new IdAllocator();
+
+    private AtomicReference<Block> current;
+    private IdBlockSource source;
+    private int blockSize;
+
+    public IdAllocator() {
+        this.current = new AtomicReference<>(new Block(1, Long.MAX_VALUE));
+    }
+
+    /**
+     * Returns the next id.
+     */
+    public long next() {
+        while (true) {
+            Block block = current.get();
+            long id = block.next.getAndIncrement();
+            if (id < block.end) {
+                return id;
+            }
+            refill(block);
+        }
+    }
+
+    @Override
+    public long reserveBlock(int size) {
+        return current.get().next.getAndAdd(size);
+    }
+
+    /**
+     * Makes this allocator draw its ids in blocks from a shared source from now on.
+     * @param source The shared source, e.g. the cluster-wide allocator.
+     * @param blockSize The number of ids to reserve at a time.
+     */
+    public synchronized void useBlocksFrom(IdBlockSource source, int blockSize) {
+        this.source = source;
+        this.blockSize = blockSize;
+        long first = source.reserveBlock(blockSize);
+        current.set(new Block(first, first + blockSize));
+    }
+
+    /**
+     * Makes sure ids handed out from now on are larger than an id that already exists,
+     * e.g. one restored from disk.
+     * @param id An id already in use.
+     */
+    public void advancePast(long id) {
+        AtomicLong next = current.get().next;
+        long value;
+        // Read first, so the common case (id already behind the counter) does not write
+        while ((value = next.get()) <= id) {
+            if (next.compareAndSet(value, id + 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Parses the numeric id out of its display form.
+     * @param value The display form, e.g. "APP-42".
+     * @param prefix The expected prefix, e.g. "APP-".
+     * @return The numeric id, or -1 if the value is not of that form.
+     */
+    public static long parse(String value, String prefix) {
+        if (value == null || !value.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Replaces an exhausted block, unless another thread already has.
+     */
+    private synchronized void refill(Block exhausted) {
+        if (current.get() == exhausted) {
+            long first = source.reserveBlock(blockSize);
+            current.set(new Block(first, first + blockSize));
+        }
+    }
+
+    /**
+     * A range of ids [next, end) being handed out.
+     */
+    private static class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        Block(long first, long end) {
+            this.next = new AtomicLong(first);
+            this.end = end;
+        }
+    }
+}
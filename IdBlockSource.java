@@ -0,0 +1,11 @@
+/**
+ * A source of id blocks shared between nodes; see {@link IdAllocator}.
+ */
+public interface IdBlockSource {
+    /**
+     * Reserves a block of consecutive ids.
+     * @param size The number of ids to reserve.
+     * @return The first id of the block; the block is [first, first + size).
+     */
+    long reserveBlock(int size);
+}
@@ -0,0 +1,141 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A shard that is an ATSService in the same JVM, called directly. Lets a whole
+ * {@link ShardedATSService} cluster run on one machine, e.g. in the cluster harness.
+ */
+public class InProcessShardTransport implements ShardTransport {
+    private String name;
+    private ATSService service;
+
+    public InProcessShardTransport(String name, ATSService service) {
+        this.name = name;
+        this.service = service;
+    }
+
+    /**
+     * Returns the service behind this shard, e.g. to read its metrics.
+     */
+    public ATSService getService() {
+        return this.service;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public void postJob(Job job) {
+        service.postJob(job);
+    }
+
+    @Override
+    public boolean addApplicant(Applicant applicant) {
+        return service.addApplicant(applicant);
+    }
+
+    @Override
+    public long acceptApplication(Applicant applicant, Job job) {
+        long start = System.nanoTime();
+        try {
+            if (service.findApplicant(applicant.getId()) == null) {
+                service.restoreApplicant(applicant);
+            }
+            Application application = service.submitApplication(applicant, job);
+            return application != null ? application.getId() : -1;
+        } finally {
+            service.getMetrics().record(ServiceOperation.ACCEPT_APPLICATION, start);
+        }
+    }
+
+    @Override
+    public boolean advanceStage(String applicationId, String newStage) {
+        // Jobs only move under the front end's topology write lock, so this cannot go stale
+        if (service.findApplication(IdAllocator.parse(applicationId, "APP-")) == null) {
+            return false;
+        }
+        service.advanceStage(applicationId, newStage);
+        return true;
+    }
+
+    @Override
+    public List<Applicant> searchApplicants(ApplicantQuery query) {
+        return service.searchApplicants(query);
+    }
+
+    @Override
+    public List<Application> rankByScore(String jobId) {
+        return service.rankByScore(jobId);
+    }
+
+    @Override
+    public List<Application> topK(int k) {
+        List<Application> best = new ArrayList<>();
+        for (long jobId : service.jobIds()) {
+            Job job = service.findJob(jobId);
+            if (job != null) {
+                best.addAll(service.topK(job.getJobId(), k));
+            }
+        }
+        best.sort(ShardedATSService.RANK_ORDER);
+        return best.size() > k ? new ArrayList<>(best.subList(0, k)) : best;
+    }
+
+    @Override
+    public List<Applicant> registeredApplicants() {
+        return service.registeredApplicants();
+    }
+
+    @Override
+    public void importApplicants(List<Applicant> applicants) {
+        for (Applicant applicant : applicants) {
+            service.restoreApplicant(applicant);
+        }
+    }
+
+    @Override
+    public void releaseApplicants(List<Applicant> applicants) {
+        for (Applicant applicant : applicants) {
+            service.releaseApplicant(applicant);
+        }
+    }
+
+    @Override
+    public List<Long> jobIds() {
+        return service.jobIds();
+    }
+
+    @Override
+    public JobPartition exportJob(long jobId) {
+        Job job = service.findJob(jobId);
+        return job != null
+                ? new JobPartition(job, service.applicationsForJob(jobId), service.stageTransitionsForJob(jobId))
+                : null;
+    }
+
+    @Override
+    public void importJobs(List<JobPartition> partitions) {
+        List<StageTransition> transitions = new ArrayList<>();
+        for (JobPartition partition : partitions) {
+            service.restoreJob(partition.getJob());
+            for (Application application : partition.getApplications()) {
+                service.restoreApplicant(application.getApplicant());
+                service.restoreApplication(application);
+            }
+            transitions.addAll(partition.getTransitions());
+        }
+        // Each partition is in time order; the stable sort keeps an application's own order on ties
+        transitions.sort(Comparator.comparingLong(StageTransition::getTimestamp));
+        for (StageTransition transition : transitions) {
+            service.restoreStageTransition(transition);
+        }
+    }
+
+    @Override
+    public void dropJob(long jobId) {
+        service.removeJob(jobId);
+    }
+}
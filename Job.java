@@ -1,29 +1,45 @@
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents a job posting within the ATS.
  * Demonstrates encapsulation by having private fields with public getters and setters.
  */
 public class Job {
-    private String jobId;
-    private String title;
-    private String department;
+    private final long id;
+    // Volatile so scoring threads see an update made by updateJob on another thread
+    private volatile String title;
+    private volatile String department;
     private String location;
     private String status; // e.g., "Open", "Closed"
-    private static int jobCount = 0;
+    private static final AtomicInteger jobCount = new AtomicInteger();
 
     public Job(String title, String department, String location) {
-        this.jobId = "J-" + UUID.randomUUID().toString().substring(0, 6);
+        this(IdAllocator.JOBS.next(), title, department, location, "Open");
+    }
+
+    /**
+     * Recreates a job with a known ID and status, e.g. when restoring persisted state.
+     */
+    public Job(long id, String title, String department, String location, String status) {
+        IdAllocator.JOBS.advancePast(id);
+        this.id = id;
         this.title = title;
         this.department = department;
         this.location = location;
-        this.status = "Open";
-        jobCount++;
+        this.status = status;
+        jobCount.incrementAndGet();
     }
 
     // Getters
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * Returns the display form of the ID, e.g. "J-42".
+     */
     public String getJobId() {
-        return this.jobId;
+        return "J-" + this.id;
     }
 
     public String getTitle() {
@@ -43,10 +59,18 @@ public class Job {
     }
 
     public static int getJobCount() {
-        return jobCount;
+        return jobCount.get();
+    }
+
+    // Setters
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
     }
 
-    // Setter
     public void setStatus(String status) {
         this.status = status;
     }
@@ -55,7 +79,7 @@ public class Job {
      * Prints a formatted summary of the job.
      */
     public void printJobDetails() {
-        System.out.println("Job ID: " + this.jobId);
+        System.out.println("Job ID: " + getJobId());
         System.out.println("Title: " + this.title);
         System.out.println("Department: " + this.department);
         System.out.println("Location: " + this.location);
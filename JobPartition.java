@@ -0,0 +1,33 @@
+import java.util.List;
+
+/**
+ * A job with all of its applications and their stage history, as handed from one shard to
+ * another when a {@link ShardedATSService} rebalances. The applications keep their ids,
+ * stages, scores and remarks, and the transitions their timestamps.
+ */
+public class JobPartition {
+    private Job job;
+    private List<Application> applications;
+    private List<StageTransition> transitions;
+
+    public JobPartition(Job job, List<Application> applications, List<StageTransition> transitions) {
+        this.job = job;
+        this.applications = applications;
+        this.transitions = transitions;
+    }
+
+    public Job getJob() {
+        return this.job;
+    }
+
+    public List<Application> getApplications() {
+        return this.applications;
+    }
+
+    /**
+     * Returns the stage transitions of the applications, in time order.
+     */
+    public List<StageTransition> getTransitions() {
+        return this.transitions;
+    }
+}
@@ -0,0 +1,91 @@
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The applications for one job, bucketed by stage. Buckets are held in an array indexed
+ * by {@link Stage#ordinal()} with a counter per stage, so stage counts are O(1) and listing
+ * a stage only touches the applications in it.
+ */
+public class JobPipeline {
+    private static final Stage[] STAGES = Stage.values();
+
+    private List<Set<Application>> buckets;
+    private AtomicIntegerArray counts;
+
+    public JobPipeline() {
+        this.buckets = new ArrayList<>(STAGES.length);
+        for (int i = 0; i < STAGES.length; i++) {
+            buckets.add(new LinkedHashSet<>());
+        }
+        this.counts = new AtomicIntegerArray(STAGES.length);
+    }
+
+    /**
+     * Adds an application to the bucket of its current stage.
+     * @param application The application to add.
+     */
+    public void add(Application application) {
+        Stage stage = application.getPipelineStage();
+        if (buckets.get(stage.ordinal()).add(application)) {
+            counts.incrementAndGet(stage.ordinal());
+        }
+    }
+
+    /**
+     * Moves an application to a new stage, updating both its buckets and the application itself.
+     * @param application The application to move.
+     * @param newStage The stage to move it to.
+     */
+    public void move(Application application, Stage newStage) {
+        Stage oldStage = application.getPipelineStage();
+        if (oldStage == newStage) {
+            return;
+        }
+        if (buckets.get(oldStage.ordinal()).remove(application)) {
+            counts.decrementAndGet(oldStage.ordinal());
+        }
+        application.setStage(newStage);
+        if (buckets.get(newStage.ordinal()).add(application)) {
+            counts.incrementAndGet(newStage.ordinal());
+        }
+    }
+
+    /**
+     * Returns the number of applications currently in a stage.
+     */
+    public int count(Stage stage) {
+        return this.counts.get(stage.ordinal());
+    }
+
+    /**
+     * Returns the number of applications in each stage, indexed by {@link Stage#ordinal()}.
+     */
+    public int[] counts() {
+        int[] result = new int[STAGES.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = counts.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the total number of applications across all stages.
+     */
+    public int total() {
+        int total = 0;
+        for (int i = 0; i < STAGES.length; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the applications currently in a stage, in the order they entered it.
+     */
+    public List<Application> applicationsIn(Stage stage) {
+        return new ArrayList<>(buckets.get(stage.ordinal()));
+    }
+}
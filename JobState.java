@@ -0,0 +1,51 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Everything the service tracks for one job: its applications in submission order,
+ * the score leaderboard and the stage pipeline. Each job has its own lock, so writes
+ * for different jobs never contend with each other.
+ */
+public class JobState {
+    private Job job;
+    private List<Application> applications;
+    private Leaderboard leaderboard;
+    private JobPipeline pipeline;
+    private ReentrantLock lock;
+
+    public JobState(Job job) {
+        this.job = job;
+        this.applications = new ArrayList<>();
+        this.leaderboard = new Leaderboard();
+        this.pipeline = new JobPipeline();
+        this.lock = new ReentrantLock();
+    }
+
+    public Job getJob() {
+        return this.job;
+    }
+
+    /**
+     * Returns the live list of applications; only touch it while holding {@link #getLock()}.
+     */
+    public List<Application> getApplications() {
+        return this.applications;
+    }
+
+    public Leaderboard getLeaderboard() {
+        return this.leaderboard;
+    }
+
+    /**
+     * Returns the stage pipeline; its buckets should only be read or changed while holding
+     * {@link #getLock()}, while its counters can be read at any time.
+     */
+    public JobPipeline getPipeline() {
+        return this.pipeline;
+    }
+
+    public ReentrantLock getLock() {
+        return this.lock;
+    }
+}
@@ -0,0 +1,425 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Keeps the applications for one job ordered by score (highest first), ties broken by
+ * application ID. It listens for score changes, so reading the top K is O(log n + k)
+ * instead of a filter and full sort on every call.
+ *
+ * The ranking is an immutable balanced tree with subtree sizes, published through one
+ * volatile reference. A change copies only the path to the changed entry and swaps in the
+ * new root, so a reader always walks one complete ranking: it never sees an application
+ * twice or not at all while its score moves. Changes made between {@link #beginBatch()}
+ * and {@link #endBatch()}, e.g. one rescored chunk, are published together in one swap.
+ * Writers are serialized on the leaderboard; readers never block.
+ */
+public class Leaderboard implements ScoreListener {
+    private static final Comparator<Entry> ORDER =
+            Comparator.comparingInt((Entry e) -> e.score).reversed()
+                      .thenComparingLong(e -> e.applicationId);
+
+    // What readers see
+    private volatile Ranking published = new Ranking(null);
+    // Everything below is guarded by this; working equals published outside a batch
+    private Node working;
+    private Map<Long, Entry> entriesByApplicationId;
+    private int batchDepth;
+
+    public Leaderboard() {
+        this.entriesByApplicationId = new HashMap<>();
+    }
+
+    /**
+     * Adds an application and starts tracking its score changes.
+     * @param application The application to rank.
+     */
+    public synchronized void add(Application application) {
+        Entry entry = new Entry(application.getScore(), application);
+        Entry previous = entriesByApplicationId.put(application.getId(), entry);
+        if (previous != null) {
+            working = remove(working, previous);
+        }
+        working = insert(working, entry);
+        application.setScoreListener(this);
+        publish();
+    }
+
+    /**
+     * Adds a batch of applications, published to readers in one step.
+     * @param applications The applications to rank.
+     */
+    public synchronized void addAll(Collection<Application> applications) {
+        beginBatch();
+        try {
+            for (Application application : applications) {
+                add(application);
+            }
+        } finally {
+            endBatch();
+        }
+    }
+
+    @Override
+    public synchronized void scoreChanged(Application application, int oldScore) {
+        Entry previous = entriesByApplicationId.get(application.getId());
+        if (previous == null) {
+            return;
+        }
+        Entry entry = new Entry(application.getScore(), application);
+        working = insert(remove(working, previous), entry);
+        entriesByApplicationId.put(application.getId(), entry);
+        publish();
+    }
+
+    /**
+     * Holds back changes from readers until the matching {@link #endBatch()}. Batches nest.
+     */
+    public synchronized void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Publishes every change made since the outermost {@link #beginBatch()} at once.
+     */
+    public synchronized void endBatch() {
+        batchDepth--;
+        publish();
+    }
+
+    /**
+     * Returns the k highest-scoring applications.
+     * @param k The maximum number of applications to return.
+     * @return The applications, best first.
+     */
+    public List<Application> topK(int k) {
+        return page(0, k);
+    }
+
+    /**
+     * Returns one page of the ranking.
+     * @param offset The number of ranked applications to skip.
+     * @param limit The maximum number of applications to return.
+     * @return The applications on the page, best first.
+     */
+    public List<Application> page(int offset, int limit) {
+        Ranking ranking = published;
+        Node root = ranking.root;
+        int from = Math.max(0, offset);
+        int to = (int) Math.min(size(root), (long) from + Math.max(0, limit));
+        if (from >= to) {
+            return new ArrayList<>();
+        }
+        Application[] ordered = ranking.ordered;
+        if (ordered == null && from == 0 && to == size(root)) {
+            // The whole ranking was asked for; keep it flat for the next full read of this version
+            ordered = ranking.flatten();
+        }
+        if (ordered != null) {
+            return new ArrayList<>(Arrays.asList(ordered).subList(from, to));
+        }
+        List<Application> result = new ArrayList<>(to - from);
+        collect(root, from, to, result);
+        return result;
+    }
+
+    /**
+     * Returns one page of the ranking, starting right after a given position (keyset
+     * paging), so deep pages cost the same as the first.
+     * @param score The score of the last application on the previous page.
+     * @param applicationId The id of the last application on the previous page.
+     * @param limit The maximum number of applications to return.
+     * @return The applications ranked after that position, best first.
+     */
+    public List<Application> pageAfter(int score, long applicationId, int limit) {
+        List<Application> result = new ArrayList<>();
+        for (Entry entry : entriesAfter(score, applicationId, limit)) {
+            result.add(entry.application);
+        }
+        return result;
+    }
+
+    /**
+     * Returns one page of the ranking as entries, each with the score its application was
+     * ranked under, so a keyset position taken from it matches the ranking it came from.
+     * @param offset The number of ranked applications to skip.
+     * @param limit The maximum number of entries to return.
+     */
+    public List<Entry> entries(int offset, int limit) {
+        Node root = published.root;
+        return take(new RankIterator(root, Math.max(0, offset)), root, limit);
+    }
+
+    /**
+     * Returns the entries ranked right after a given position, like {@link #pageAfter}.
+     */
+    public List<Entry> entriesAfter(int score, long applicationId, int limit) {
+        Node root = published.root;
+        return take(new RankIterator(root, new Entry(score, applicationId, null)), root, limit);
+    }
+
+    /**
+     * Returns the ranking as a lazy stream, best first. It reads the ranking as it was
+     * when the stream was created, whatever changes while it is consumed.
+     */
+    public Stream<Application> stream() {
+        Node root = published.root;
+        Spliterator<Entry> entries = Spliterators.spliterator(new RankIterator(root, 0), size(root),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        return StreamSupport.stream(entries, false).map(entry -> entry.application);
+    }
+
+    /**
+     * Returns the number of ranked applications in constant time.
+     */
+    public int size() {
+        return size(published.root);
+    }
+
+    private static List<Entry> take(Iterator<Entry> it, Node root, int limit) {
+        List<Entry> result = new ArrayList<>(Math.max(0, Math.min(limit, size(root))));
+        while (result.size() < limit && it.hasNext()) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    private void publish() {
+        if (batchDepth == 0 && published.root != working) {
+            published = new Ranking(working);
+        }
+    }
+
+    // Appends the entries ranked [from, to) within this subtree, skipping subtrees outside it
+    private static void collect(Node node, int from, int to, List<Application> result) {
+        while (node != null && from < to) {
+            int leftSize = size(node.left);
+            if (from < leftSize) {
+                collect(node.left, from, Math.min(to, leftSize), result);
+            }
+            if (from <= leftSize && leftSize < to) {
+                result.add(node.entry.application);
+            }
+            from = Math.max(0, from - leftSize - 1);
+            to -= leftSize + 1;
+            node = node.right;
+        }
+    }
+
+    // --- Persistent AVL tree: every operation returns a new root and leaves the old one intact ---
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static Node insert(Node node, Entry entry) {
+        if (node == null) {
+            return new Node(entry, null, null);
+        }
+        int order = ORDER.compare(entry, node.entry);
+        if (order < 0) {
+            return balance(node.entry, insert(node.left, entry), node.right);
+        } else if (order > 0) {
+            return balance(node.entry, node.left, insert(node.right, entry));
+        }
+        return new Node(entry, node.left, node.right);
+    }
+
+    private static Node remove(Node node, Entry entry) {
+        if (node == null) {
+            return null;
+        }
+        int order = ORDER.compare(entry, node.entry);
+        if (order < 0) {
+            return balance(node.entry, remove(node.left, entry), node.right);
+        } else if (order > 0) {
+            return balance(node.entry, node.left, remove(node.right, entry));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.entry, node.left, removeFirst(node.right));
+    }
+
+    private static Node removeFirst(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.entry, removeFirst(node.left), node.right);
+    }
+
+    /**
+     * Builds a node whose subtrees differ in height by at most two, rotating back into balance.
+     */
+    private static Node balance(Entry entry, Node left, Node right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node(left.entry, left.left, new Node(entry, left.right, right));
+            }
+            return new Node(left.right.entry, new Node(left.entry, left.left, left.right.left),
+                            new Node(entry, left.right.right, right));
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node(right.entry, new Node(entry, left, right.left), right.right);
+            }
+            return new Node(right.left.entry, new Node(entry, left, right.left.left),
+                            new Node(right.entry, right.left.right, right.right));
+        }
+        return new Node(entry, left, right);
+    }
+
+    /**
+     * One published version of the ranking, with its order flattened into an array on the
+     * first full read.
+     */
+    private static class Ranking {
+        private final Node root;
+        // Racy but benign: every thread computes the same array
+        private volatile Application[] ordered;
+
+        Ranking(Node root) {
+            this.root = root;
+        }
+
+        Application[] flatten() {
+            List<Application> all = new ArrayList<>(size(root));
+            collect(root, 0, size(root), all);
+            Application[] result = all.toArray(new Application[0]);
+            this.ordered = result;
+            return result;
+        }
+    }
+
+    private static class Node {
+        private final Entry entry;
+        private final Node left;
+        private final Node right;
+        private final int height;
+        private final int size;
+
+        Node(Entry entry, Node left, Node right) {
+            this.entry = entry;
+            this.left = left;
+            this.right = right;
+            this.height = 1 + Math.max(height(left), height(right));
+            this.size = 1 + size(left) + size(right);
+        }
+    }
+
+    /**
+     * In-order iteration over one published tree, starting at a rank or after a position.
+     */
+    private static class RankIterator implements Iterator<Entry> {
+        private final Deque<Node> path = new ArrayDeque<>();
+
+        // Starts at the entry with the given rank, found through the subtree sizes
+        RankIterator(Node root, int offset) {
+            Node node = root;
+            int skip = offset;
+            while (node != null) {
+                int leftSize = size(node.left);
+                if (skip < leftSize) {
+                    path.push(node);
+                    node = node.left;
+                } else if (skip == leftSize) {
+                    path.push(node);
+                    return;
+                } else {
+                    skip -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        // Starts at the first entry ranked after the given position
+        RankIterator(Node root, Entry after) {
+            Node node = root;
+            while (node != null) {
+                if (ORDER.compare(node.entry, after) > 0) {
+                    path.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        @Override
+        public Entry next() {
+            if (path.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node node = path.pop();
+            for (Node next = node.right; next != null; next = next.left) {
+                path.push(next);
+            }
+            return node.entry;
+        }
+    }
+
+    /**
+     * An immutable (score, application) pair, so the sort key cannot change
+     * while the entry sits in the tree.
+     */
+    public static class Entry {
+        private final int score;
+        private final long applicationId;
+        private final Application application;
+
+        Entry(int score, Application application) {
+            this(score, application.getId(), application);
+        }
+
+        // A bare position in the ranking, used as a search key
+        Entry(int score, long applicationId, Application application) {
+            this.score = score;
+            this.applicationId = applicationId;
+            this.application = application;
+        }
+
+        /**
+         * Returns the score the application is ranked under here, which its live score
+         * may have moved on from.
+         */
+        public int getScore() {
+            return this.score;
+        }
+
+        public long getApplicationId() {
+            return this.applicationId;
+        }
+
+        public Application getApplication() {
+            return this.application;
+        }
+    }
+}
@@ -0,0 +1,387 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Off-heap, column-oriented applicant store backed by memory-mapped files. It keeps
+ * applicant data out of the Java heap, so tens of millions of candidates do not add to
+ * GC pause times.
+ *
+ * Each fixed-width attribute has its own column file indexed by ordinal: the numeric id,
+ * the type tag, the years of experience and a reference into a shared column of interned
+ * skill ids. Variable-length strings (name, email, specialty or field of study) live in a
+ * separate mapped string heap, referenced by offset. A reusable {@link ApplicantView}
+ * reads an applicant straight from the columns without materializing an Applicant.
+ *
+ * Every append ends by saving the counts to a meta column, after the data they cover, so
+ * a process that dies keeps every applicant whose add returned. {@link #force()} also
+ * survives a machine crash.
+ *
+ * Appends are serialized; reads can come from any thread.
+ */
+public class MappedApplicantStore implements AutoCloseable {
+    public static final byte BASE_APPLICANT = 0;
+    public static final byte TECH_APPLICANT = 1;
+    public static final byte NON_TECH_APPLICANT = 2;
+
+    // String slots per applicant in the string reference column
+    private static final int NAME = 0;
+    private static final int EMAIL = 1;
+    private static final int EXTRA = 2;
+    private static final int STRINGS_PER_APPLICANT = 3;
+    // A skill reference packs the start index into the skill id column with a 16-bit count
+    private static final int SKILL_COUNT_BITS = 16;
+    public static final int MAX_SKILLS = (1 << SKILL_COUNT_BITS) - 1;
+    // Meta column layout: the counts below, each a long
+    private static final int META_SIZE = 0;
+    private static final int META_SKILL_IDS_END = 8;
+    private static final int META_HEAP_END = 16;
+    private static final int META_SKILL_NAMES = 24;
+
+    private SkillDictionary dictionary;
+    private MappedColumn meta;
+    private MappedColumn ids;
+    private MappedColumn types;
+    private MappedColumn experience;
+    private MappedColumn skillRefs;
+    private MappedColumn skillIds;
+    // String heap offset of each skill name, indexed by dictionary id
+    private MappedColumn skillNames;
+    private MappedColumn stringRefs;
+    private MappedColumn stringHeap;
+    // Readers only look at ordinals below size, so it is published after each append
+    private volatile int size;
+    private long skillIdsEnd;
+    private long heapEnd;
+    // Dictionary ids below this have their names saved in skillNames
+    private int savedSkillNames;
+
+    private MappedApplicantStore(Path directory) throws IOException {
+        this.dictionary = new SkillDictionary();
+        this.meta = new MappedColumn(directory.resolve("meta.col"));
+        this.ids = new MappedColumn(directory.resolve("id.col"));
+        this.types = new MappedColumn(directory.resolve("type.col"));
+        this.experience = new MappedColumn(directory.resolve("experience.col"));
+        this.skillRefs = new MappedColumn(directory.resolve("skill-ref.col"));
+        this.skillIds = new MappedColumn(directory.resolve("skill-ids.col"));
+        this.skillNames = new MappedColumn(directory.resolve("skill-names.col"));
+        this.stringRefs = new MappedColumn(directory.resolve("string-ref.col"));
+        this.stringHeap = new MappedColumn(directory.resolve("strings.heap"));
+    }
+
+    /**
+     * Opens the store in a directory, creating it if needed.
+     * @param directory The directory holding the column files.
+     * @return The store, with every applicant added before it was last closed or the
+     *         process stopped.
+     */
+    public static MappedApplicantStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        MappedApplicantStore store = new MappedApplicantStore(directory);
+        store.size = (int) store.meta.getLong(META_SIZE);
+        store.skillIdsEnd = store.meta.getLong(META_SKILL_IDS_END);
+        store.heapEnd = store.meta.getLong(META_HEAP_END);
+        store.savedSkillNames = (int) store.meta.getLong(META_SKILL_NAMES);
+        for (int id = 0; id < store.savedSkillNames; id++) {
+            store.dictionary.intern(store.stringAt(store.skillNames.getLong((long) id * 8)));
+        }
+        return store;
+    }
+
+    /**
+     * Appends an applicant.
+     * @param applicant The applicant to store.
+     * @return The ordinal of the stored applicant.
+     * @throws IllegalArgumentException if the applicant has more than {@link #MAX_SKILLS} skills.
+     */
+    public synchronized int add(Applicant applicant) {
+        List<String> skills = applicant.getSkills();
+        if (skills.size() > MAX_SKILLS) {
+            throw new IllegalArgumentException("An applicant can have at most " + MAX_SKILLS + " skills, not " + skills.size());
+        }
+        int ordinal = size;
+        byte type = BASE_APPLICANT;
+        String extra = "";
+        if (applicant instanceof TechApplicant) {
+            type = TECH_APPLICANT;
+            extra = ((TechApplicant) applicant).getSpecialty();
+        } else if (applicant instanceof NonTechApplicant) {
+            type = NON_TECH_APPLICANT;
+            extra = ((NonTechApplicant) applicant).getFieldOfStudy();
+        }
+        ids.putLong((long) ordinal * 8, applicant.getId());
+        types.putByte(ordinal, type);
+        experience.putInt((long) ordinal * 4, applicant.getYearsOfExperience());
+
+        long skillStart = skillIdsEnd;
+        for (String skill : skills) {
+            skillIds.putInt(skillIdsEnd * 4, dictionary.intern(skill));
+            skillIdsEnd++;
+        }
+        skillRefs.putLong((long) ordinal * 8, (skillStart << SKILL_COUNT_BITS) | skills.size());
+
+        long stringBase = (long) ordinal * STRINGS_PER_APPLICANT * 8;
+        stringRefs.putLong(stringBase + NAME * 8, appendString(applicant.getName()));
+        stringRefs.putLong(stringBase + EMAIL * 8, appendString(applicant.getEmail()));
+        stringRefs.putLong(stringBase + EXTRA * 8, appendString(extra));
+
+        // Names of skills interned by this applicant, so open() can rebuild the dictionary
+        for (; savedSkillNames < dictionary.size(); savedSkillNames++) {
+            skillNames.putLong((long) savedSkillNames * 8, appendString(dictionary.skillOf(savedSkillNames)));
+        }
+        saveMeta(ordinal + 1);
+        size = ordinal + 1;
+        return ordinal;
+    }
+
+    /**
+     * Replaces an applicant's name and email. The new strings are appended to the string
+     * heap and the references switched over; the old strings are left unused.
+     */
+    public synchronized void update(int ordinal, String name, String email) {
+        long stringBase = (long) ordinal * STRINGS_PER_APPLICANT * 8;
+        stringRefs.putLong(stringBase + NAME * 8, appendString(name));
+        stringRefs.putLong(stringBase + EMAIL * 8, appendString(email));
+        saveMeta(size);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public byte typeOf(int ordinal) {
+        return types.getByte(ordinal);
+    }
+
+    public int yearsOf(int ordinal) {
+        return experience.getInt((long) ordinal * 4);
+    }
+
+    /**
+     * Returns the interned skill ids of an applicant; see {@link #getDictionary()}.
+     */
+    public int[] skillIdsOf(int ordinal) {
+        long ref = skillRefs.getLong((long) ordinal * 8);
+        long start = ref >>> SKILL_COUNT_BITS;
+        int[] ids = new int[(int) (ref & ((1 << SKILL_COUNT_BITS) - 1))];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = skillIds.getInt((start + i) * 4);
+        }
+        return ids;
+    }
+
+    public long idOf(int ordinal) {
+        return ids.getLong((long) ordinal * 8);
+    }
+
+    public String nameOf(int ordinal) {
+        return stringOf(ordinal, NAME);
+    }
+
+    public String emailOf(int ordinal) {
+        return stringOf(ordinal, EMAIL);
+    }
+
+    /**
+     * Returns the specialty of a technical applicant or the field of study of a
+     * non-technical one; empty for plain applicants.
+     */
+    public String extraOf(int ordinal) {
+        return stringOf(ordinal, EXTRA);
+    }
+
+    /**
+     * Returns the class a stored type byte stands for.
+     */
+    public static Class<? extends Applicant> typeClass(byte type) {
+        if (type == TECH_APPLICANT) {
+            return TechApplicant.class;
+        } else if (type == NON_TECH_APPLICANT) {
+            return NonTechApplicant.class;
+        }
+        return Applicant.class;
+    }
+
+    public SkillDictionary getDictionary() {
+        return this.dictionary;
+    }
+
+    /**
+     * Returns the store as a list indexed by ordinal: get() materializes an applicant and
+     * add() appends one, so code written against a list of applicants can keep them here.
+     */
+    public List<Applicant> asList() {
+        return new AbstractList<Applicant>() {
+            @Override
+            public Applicant get(int ordinal) {
+                Objects.checkIndex(ordinal, MappedApplicantStore.this.size);
+                return view().moveTo(ordinal).toApplicant();
+            }
+
+            @Override
+            public int size() {
+                return MappedApplicantStore.this.size;
+            }
+
+            @Override
+            public boolean add(Applicant applicant) {
+                MappedApplicantStore.this.add(applicant);
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns a new reusable view for reading applicants from this store.
+     */
+    public ApplicantView view() {
+        return new ApplicantView();
+    }
+
+    /**
+     * Forces every applicant added so far to disk, the data columns before the counts.
+     */
+    public synchronized void force() {
+        for (MappedColumn column : dataColumns()) {
+            column.force();
+        }
+        meta.force();
+    }
+
+    /**
+     * Forces the columns to disk and unmaps them.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        for (MappedColumn column : dataColumns()) {
+            column.close();
+        }
+        meta.close();
+    }
+
+    private List<MappedColumn> dataColumns() {
+        return List.of(ids, types, experience, skillRefs, skillIds, skillNames, stringRefs, stringHeap);
+    }
+
+    /**
+     * Records the counts after an append; the size goes last, once everything it covers is written.
+     */
+    private void saveMeta(int newSize) {
+        meta.putLong(META_SKILL_IDS_END, skillIdsEnd);
+        meta.putLong(META_HEAP_END, heapEnd);
+        meta.putLong(META_SKILL_NAMES, savedSkillNames);
+        meta.putLong(META_SIZE, newSize);
+    }
+
+    private long appendString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long needed = 4L + bytes.length;
+        if (MappedColumn.remainingInChunk(heapEnd) < needed) {
+            heapEnd += MappedColumn.remainingInChunk(heapEnd);
+        }
+        long offset = heapEnd;
+        stringHeap.putInt(offset, bytes.length);
+        stringHeap.putBytes(offset + 4, bytes);
+        heapEnd += needed;
+        // Keep every length prefix 4-byte aligned so it never straddles a chunk
+        heapEnd = (heapEnd + 3) & ~3L;
+        return offset;
+    }
+
+    private String stringOf(int ordinal, int slot) {
+        return stringAt(stringRefs.getLong(((long) ordinal * STRINGS_PER_APPLICANT + slot) * 8));
+    }
+
+    private String stringAt(long offset) {
+        byte[] bytes = new byte[stringHeap.getInt(offset)];
+        stringHeap.getBytes(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A flyweight over one stored applicant. Move it to an ordinal and read fields straight
+     * from the columns; the same view can be reused for a whole scan.
+     */
+    public class ApplicantView {
+        private int ordinal;
+
+        public ApplicantView moveTo(int ordinal) {
+            this.ordinal = ordinal;
+            return this;
+        }
+
+        public int getOrdinal() {
+            return this.ordinal;
+        }
+
+        public byte getType() {
+            return typeOf(ordinal);
+        }
+
+        public long getId() {
+            return idOf(ordinal);
+        }
+
+        public String getApplicantId() {
+            return "A-" + idOf(ordinal);
+        }
+
+        public String getName() {
+            return nameOf(ordinal);
+        }
+
+        public String getEmail() {
+            return emailOf(ordinal);
+        }
+
+        public int getYearsOfExperience() {
+            return yearsOf(ordinal);
+        }
+
+        /**
+         * Checks for a skill by comparing interned ids, without decoding any strings.
+         */
+        public boolean hasSkill(String skill) {
+            int id = dictionary.idOf(skill);
+            if (id < 0) {
+                return false;
+            }
+            for (int skillId : skillIdsOf(ordinal)) {
+                if (skillId == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public List<String> getSkills() {
+            int[] ids = skillIdsOf(ordinal);
+            List<String> skills = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                skills.add(dictionary.skillOf(id));
+            }
+            return skills;
+        }
+
+        /**
+         * Materializes the applicant as a regular on-heap object of the right subclass. The
+         * copy is not counted as a newly created applicant.
+         */
+        public Applicant toApplicant() {
+            byte type = getType();
+            if (type == TECH_APPLICANT) {
+                return new TechApplicant(getId(), getName(), getEmail(), getYearsOfExperience(), getSkills(),
+                                         extraOf(ordinal), false);
+            } else if (type == NON_TECH_APPLICANT) {
+                return new NonTechApplicant(getId(), getName(), getEmail(), getYearsOfExperience(), getSkills(),
+                                            extraOf(ordinal), false);
+            }
+            return new Applicant(getId(), getName(), getEmail(), getYearsOfExperience(), getSkills(), false);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A file-backed byte region addressed by long offsets, memory-mapped in fixed 64 MB chunks
+ * so it can grow past the 2 GB limit of a single MappedByteBuffer. Chunks are mapped on
+ * first use; the file grows as they are mapped.
+ *
+ * Reads use absolute positions only and are safe from any thread. Writers must not
+ * write the same bytes concurrently, and a value must not straddle a chunk boundary
+ * (values aligned to their own width never do, since that width divides the chunk size).
+ */
+public class MappedColumn implements AutoCloseable {
+    public static final int CHUNK_BYTES = 1 << 26;
+
+    private FileChannel channel;
+    private volatile List<MappedByteBuffer> chunks;
+
+    public MappedColumn(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.chunks = new ArrayList<>();
+    }
+
+    public byte getByte(long position) {
+        return chunkFor(position).get(offsetIn(position));
+    }
+
+    public void putByte(long position, byte value) {
+        chunkFor(position).put(offsetIn(position), value);
+    }
+
+    public int getInt(long position) {
+        return chunkFor(position).getInt(offsetIn(position));
+    }
+
+    public void putInt(long position, int value) {
+        chunkFor(position).putInt(offsetIn(position), value);
+    }
+
+    public long getLong(long position) {
+        return chunkFor(position).getLong(offsetIn(position));
+    }
+
+    public void putLong(long position, long value) {
+        chunkFor(position).putLong(offsetIn(position), value);
+    }
+
+    public void getBytes(long position, byte[] destination) {
+        chunkFor(position).get(offsetIn(position), destination);
+    }
+
+    public void putBytes(long position, byte[] source) {
+        chunkFor(position).put(offsetIn(position), source);
+    }
+
+    /**
+     * Returns the bytes left in the chunk that holds a position, so variable-length
+     * values can skip to the next chunk rather than straddle the boundary.
+     */
+    public static long remainingInChunk(long position) {
+        return CHUNK_BYTES - (position % CHUNK_BYTES);
+    }
+
+    /**
+     * Forces the mapped chunks to disk.
+     */
+    public synchronized void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private MappedByteBuffer chunkFor(long position) {
+        int index = (int) (position / CHUNK_BYTES);
+        List<MappedByteBuffer> mapped = chunks;
+        if (index < mapped.size()) {
+            return mapped.get(index);
+        }
+        return mapChunk(index);
+    }
+
+    private synchronized MappedByteBuffer mapChunk(int index) {
+        try {
+            // Copy on write so readers can keep using the list they already hold
+            List<MappedByteBuffer> mapped = new ArrayList<>(chunks);
+            while (mapped.size() <= index) {
+                mapped.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) mapped.size() * CHUNK_BYTES, CHUNK_BYTES));
+            }
+            chunks = mapped;
+            return mapped.get(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int offsetIn(long position) {
+        return (int) (position % CHUNK_BYTES);
+    }
+}
@@ -1,4 +1,5 @@
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents a specialized non-technical applicant.
@@ -6,12 +7,28 @@ import java.util.List;
  */
 public class NonTechApplicant extends Applicant {
     private String fieldOfStudy;
-    private static int nonTechApplicantCount = 0;
+    private static final AtomicInteger nonTechApplicantCount = new AtomicInteger();
 
     public NonTechApplicant(String name, String email, int yearsOfExperience, List<String> skills, String fieldOfStudy) {
         super(name, email, yearsOfExperience, skills);
         this.fieldOfStudy = fieldOfStudy;
-        nonTechApplicantCount++;
+        nonTechApplicantCount.incrementAndGet();
+    }
+
+    /**
+     * Recreates a non-technical applicant with a known ID, e.g. when restoring persisted state.
+     */
+    public NonTechApplicant(long id, String name, String email, int yearsOfExperience, List<String> skills, String fieldOfStudy) {
+        this(id, name, email, yearsOfExperience, skills, fieldOfStudy, true);
+    }
+
+    // A copy read back from a MappedApplicantStore is not counted; see Applicant
+    NonTechApplicant(long id, String name, String email, int yearsOfExperience, List<String> skills, String fieldOfStudy, boolean counted) {
+        super(id, name, email, yearsOfExperience, skills, counted);
+        this.fieldOfStudy = fieldOfStudy;
+        if (counted) {
+            nonTechApplicantCount.incrementAndGet();
+        }
     }
 
     public String getFieldOfStudy() {
@@ -19,7 +36,7 @@ public class NonTechApplicant extends Applicant {
     }
     
     public static int getNonTechApplicantCount() {
-        return nonTechApplicantCount;
+        return nonTechApplicantCount.get();
     }
 
     /**
@@ -0,0 +1,262 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * A lazy, forward-only iterator over the sorted applicant ordinals matching a query.
+ * Instead of materializing the matches into an array, callers jump straight to the
+ * first match at or after an ordinal, so a page of results costs work proportional to
+ * the page, and a cursor can resume from the last ordinal it returned (keyset paging).
+ *
+ * Cursors read the index structures directly; build and use them under the applicant
+ * index read lock, and rebuild them for the next page rather than keeping them.
+ */
+public abstract class OrdinalCursor {
+    /**
+     * Returned by {@link #advance(int)} once there are no more matches.
+     */
+    public static final int END = Integer.MAX_VALUE;
+
+    /**
+     * Returns the first matching ordinal at or after a target. Targets must not decrease
+     * between calls.
+     * @param target The smallest ordinal of interest.
+     * @return The matching ordinal, or {@link #END}.
+     */
+    public abstract int advance(int target);
+
+    /**
+     * Returns an upper bound on the number of matches, used to order intersections.
+     */
+    public abstract long cost();
+
+    /**
+     * Returns the exact number of matches if it is known without iterating, or -1.
+     */
+    public long size() {
+        return -1;
+    }
+
+    /**
+     * Counts the matches, iterating only if the count is not known up front.
+     */
+    public long count() {
+        long known = size();
+        if (known >= 0) {
+            return known;
+        }
+        long count = 0;
+        for (int ordinal = advance(0); ordinal != END; ordinal = advance(ordinal + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    public static OrdinalCursor empty() {
+        return new Posting(new OrdinalList());
+    }
+
+    /**
+     * Iterates a posting list.
+     */
+    public static OrdinalCursor of(OrdinalList posting) {
+        return new Posting(posting);
+    }
+
+    /**
+     * Iterates every ordinal in [0, size).
+     */
+    public static OrdinalCursor all(int size) {
+        return new Range(size);
+    }
+
+    /**
+     * Matches the ordinals present in every child. Children are led by the cheapest one.
+     */
+    public static OrdinalCursor and(List<OrdinalCursor> children) {
+        if (children.isEmpty()) {
+            return empty();
+        }
+        if (children.size() == 1) {
+            return children.get(0);
+        }
+        List<OrdinalCursor> sorted = new ArrayList<>(children);
+        sorted.sort((a, b) -> Long.compare(a.cost(), b.cost()));
+        return new And(sorted.toArray(new OrdinalCursor[0]));
+    }
+
+    /**
+     * Matches the ordinals present in any child.
+     * @param disjoint Whether no ordinal can appear in two children, which makes the
+     *                 total size known when every child's is.
+     */
+    public static OrdinalCursor or(List<OrdinalCursor> children, boolean disjoint) {
+        if (children.isEmpty()) {
+            return empty();
+        }
+        if (children.size() == 1) {
+            return children.get(0);
+        }
+        return new Or(children.toArray(new OrdinalCursor[0]), disjoint);
+    }
+
+    /**
+     * Keeps only the ordinals of another cursor that pass a check.
+     */
+    public static OrdinalCursor filter(OrdinalCursor source, IntPredicate predicate) {
+        return new Filter(source, predicate);
+    }
+
+    private static class Posting extends OrdinalCursor {
+        private final OrdinalList posting;
+        private int index;
+
+        Posting(OrdinalList posting) {
+            this.posting = posting;
+        }
+
+        @Override
+        public int advance(int target) {
+            index = posting.ceilingIndex(target, index);
+            return index < posting.size() ? posting.get(index) : END;
+        }
+
+        @Override
+        public long cost() {
+            return posting.size();
+        }
+
+        @Override
+        public long size() {
+            return posting.size();
+        }
+    }
+
+    private static class Range extends OrdinalCursor {
+        private final int size;
+
+        Range(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int advance(int target) {
+            return target < size ? Math.max(0, target) : END;
+        }
+
+        @Override
+        public long cost() {
+            return size;
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+    }
+
+    private static class And extends OrdinalCursor {
+        private final OrdinalCursor[] children;
+
+        And(OrdinalCursor[] children) {
+            this.children = children;
+        }
+
+        @Override
+        public int advance(int target) {
+            // Leapfrog: the lead proposes a candidate and the others must reach exactly it
+            int candidate = children[0].advance(target);
+            int i = 1;
+            while (candidate != END && i < children.length) {
+                int ordinal = children[i].advance(candidate);
+                if (ordinal == candidate) {
+                    i++;
+                } else {
+                    candidate = children[0].advance(ordinal);
+                    i = 1;
+                }
+            }
+            return candidate;
+        }
+
+        @Override
+        public long cost() {
+            return children[0].cost();
+        }
+    }
+
+    private static class Or extends OrdinalCursor {
+        private final OrdinalCursor[] children;
+        private final int[] current;
+        private final boolean disjoint;
+
+        Or(OrdinalCursor[] children, boolean disjoint) {
+            this.children = children;
+            this.current = new int[children.length];
+            this.disjoint = disjoint;
+            Arrays.fill(current, -1);
+        }
+
+        @Override
+        public int advance(int target) {
+            int min = END;
+            for (int i = 0; i < children.length; i++) {
+                if (current[i] < target) {
+                    current[i] = children[i].advance(target);
+                }
+                min = Math.min(min, current[i]);
+            }
+            return min;
+        }
+
+        @Override
+        public long cost() {
+            long cost = 0;
+            for (OrdinalCursor child : children) {
+                cost += child.cost();
+            }
+            return cost;
+        }
+
+        @Override
+        public long size() {
+            if (!disjoint) {
+                return -1;
+            }
+            long size = 0;
+            for (OrdinalCursor child : children) {
+                long childSize = child.size();
+                if (childSize < 0) {
+                    return -1;
+                }
+                size += childSize;
+            }
+            return size;
+        }
+    }
+
+    private static class Filter extends OrdinalCursor {
+        private final OrdinalCursor source;
+        private final IntPredicate predicate;
+
+        Filter(OrdinalCursor source, IntPredicate predicate) {
+            this.source = source;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public int advance(int target) {
+            int ordinal = source.advance(target);
+            while (ordinal != END && !predicate.test(ordinal)) {
+                ordinal = source.advance(ordinal + 1);
+            }
+            return ordinal;
+        }
+
+        @Override
+        public long cost() {
+            return source.cost();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+import java.util.Arrays;
+
+/**
+ * A growable list of applicant ordinals backed by a primitive int array.
+ * Ordinals are handed out in increasing order, so appending keeps the list sorted,
+ * which lets posting lists be intersected and merged without any extra sorting.
+ */
+public class OrdinalList {
+    private static final int[] EMPTY = new int[0];
+
+    private int[] ordinals;
+    private int size;
+
+    public OrdinalList() {
+        this.ordinals = EMPTY;
+        this.size = 0;
+    }
+
+    /**
+     * Appends an ordinal. Ordinals that are not larger than the last one are ignored,
+     * so an applicant listing the same skill twice is only indexed once.
+     * @param ordinal The applicant ordinal to add.
+     */
+    public void add(int ordinal) {
+        if (size > 0 && ordinals[size - 1] >= ordinal) {
+            return;
+        }
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, Math.max(4, size * 2));
+        }
+        ordinals[size++] = ordinal;
+    }
+
+    /**
+     * Inserts an ordinal at its sorted position, for ordinals re-indexed out of order.
+     * @param ordinal The applicant ordinal to insert.
+     */
+    public void insert(int ordinal) {
+        int pos = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (pos >= 0) {
+            return;
+        }
+        pos = -pos - 1;
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, Math.max(4, size * 2));
+        }
+        System.arraycopy(ordinals, pos, ordinals, pos + 1, size - pos);
+        ordinals[pos] = ordinal;
+        size++;
+    }
+
+    /**
+     * Removes an ordinal if present.
+     * @param ordinal The applicant ordinal to remove.
+     */
+    public void remove(int ordinal) {
+        int pos = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(ordinals, pos + 1, ordinals, pos, size - pos - 1);
+        size--;
+    }
+
+    public int get(int index) {
+        return this.ordinals[index];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Finds the first position at or after fromIndex holding an ordinal of at least the
+     * given value, for seeking through the list without copying it.
+     * @return The position, or size() if there is none.
+     */
+    public int ceilingIndex(int ordinal, int fromIndex) {
+        if (fromIndex >= size || ordinals[fromIndex] >= ordinal) {
+            return Math.min(fromIndex, size);
+        }
+        int pos = Arrays.binarySearch(ordinals, fromIndex, size, ordinal);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+
+    /**
+     * Returns a copy of the ordinals as a sorted array.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(ordinals, size);
+    }
+
+    /**
+     * Intersects two sorted ordinal arrays.
+     * @return The ordinals present in both arrays, in ascending order.
+     */
+    public static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Merges two sorted ordinal arrays, dropping duplicates.
+     * @return The ordinals present in either array, in ascending order.
+     */
+    public static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                result[n++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                result[n++] = b[j++];
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Point-in-time figures for the persistence layer: how long recovery took and how much
+ * the write-ahead log has written since the service was opened.
+ */
+public class PersistenceStats {
+    private long recoveryNanos;
+    private long recordsReplayed;
+    private long recordsWritten;
+    private long bytesWritten;
+    private long commitBatches;
+    private long snapshotsWritten;
+    private long uptimeNanos;
+
+    public PersistenceStats(long recoveryNanos, long recordsReplayed, long recordsWritten, long bytesWritten,
+                            long commitBatches, long snapshotsWritten, long uptimeNanos) {
+        this.recoveryNanos = recoveryNanos;
+        this.recordsReplayed = recordsReplayed;
+        this.recordsWritten = recordsWritten;
+        this.bytesWritten = bytesWritten;
+        this.commitBatches = commitBatches;
+        this.snapshotsWritten = snapshotsWritten;
+        this.uptimeNanos = uptimeNanos;
+    }
+
+    public long getRecoveryNanos() {
+        return this.recoveryNanos;
+    }
+
+    public long getRecordsReplayed() {
+        return this.recordsReplayed;
+    }
+
+    public long getRecordsWritten() {
+        return this.recordsWritten;
+    }
+
+    public long getBytesWritten() {
+        return this.bytesWritten;
+    }
+
+    /**
+     * Returns the number of fsyncs issued; records per batch shows how well group commit is sharing them.
+     */
+    public long getCommitBatches() {
+        return this.commitBatches;
+    }
+
+    public long getSnapshotsWritten() {
+        return this.snapshotsWritten;
+    }
+
+    /**
+     * Returns the average write throughput since the service was opened, in records per second.
+     */
+    public double getRecordsPerSecond() {
+        return uptimeNanos > 0 ? recordsWritten * 1_000_000_000.0 / uptimeNanos : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Recovery: %d records in %.1f ms. Log: %d records, %d bytes in %d commits (%.1f records/commit, %.0f records/s), %d snapshots",
+                             recordsReplayed, recoveryNanos / 1_000_000.0, recordsWritten, bytesWritten, commitBatches,
+                             commitBatches > 0 ? (double) recordsWritten / commitBatches : 0.0,
+                             getRecordsPerSecond(), snapshotsWritten);
+    }
+}
@@ -0,0 +1,123 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * The order in which an {@link ApplicantQuery} is evaluated, as chosen by {@link QueryPlanner}.
+ * The first step produces the candidates, either from the most selective index or by
+ * scanning every applicant; the other steps only see the candidates that survive the
+ * steps before them.
+ */
+public class QueryPlan {
+    private ApplicantQuery query;
+    private List<Step> steps;
+    private long totalApplicants;
+    private long estimatedMatches;
+
+    QueryPlan(ApplicantQuery query, List<Step> steps, long totalApplicants, long estimatedMatches) {
+        this.query = query;
+        this.steps = steps;
+        this.totalApplicants = totalApplicants;
+        this.estimatedMatches = estimatedMatches;
+    }
+
+    /**
+     * Returns one line per step, in evaluation order, e.g. "index scan skill = Java (~412)".
+     */
+    public List<String> getSteps() {
+        List<String> lines = new ArrayList<>();
+        for (Step step : steps) {
+            lines.add(step.toString());
+        }
+        return Collections.unmodifiableList(lines);
+    }
+
+    /**
+     * Returns the criterion that produces the candidates, or "all applicants" for a full scan.
+     */
+    public String getDriver() {
+        return steps.get(0).description;
+    }
+
+    /**
+     * Returns the estimated number of matches, assuming the criteria are independent.
+     */
+    public long getEstimatedMatches() {
+        return this.estimatedMatches;
+    }
+
+    /**
+     * Returns a multi-line description of the plan.
+     */
+    public String explain() {
+        StringBuilder out = new StringBuilder();
+        out.append("Query: ").append(query).append('\n');
+        for (int i = 0; i < steps.size(); i++) {
+            out.append("  ").append(i + 1).append(". ").append(steps.get(i)).append('\n');
+        }
+        out.append("  Estimated matches: ~").append(estimatedMatches)
+           .append(" of ").append(totalApplicants).append('\n');
+        return out.toString();
+    }
+
+    @Override
+    public String toString() {
+        return explain();
+    }
+
+    /**
+     * Builds the cursor that runs the plan. Must be called under the applicant index read lock.
+     */
+    OrdinalCursor open() {
+        List<OrdinalCursor> sources = new ArrayList<>();
+        List<IntPredicate> checks = new ArrayList<>();
+        for (Step step : steps) {
+            if (step.cursor != null) {
+                sources.add(step.cursor.get());
+            } else {
+                checks.add(step.check);
+            }
+        }
+        OrdinalCursor cursor = OrdinalCursor.and(sources);
+        if (checks.isEmpty()) {
+            return cursor;
+        }
+        IntPredicate[] ordered = checks.toArray(new IntPredicate[0]);
+        return OrdinalCursor.filter(cursor, ordinal -> {
+            for (IntPredicate check : ordered) {
+                if (!check.test(ordinal)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * One criterion of a plan: either a cursor over an index (the driver and any
+     * intersections) or a check run on each surviving candidate.
+     */
+    static class Step {
+        private final String access;
+        private final String description;
+        private final long estimate;
+        private final Supplier<OrdinalCursor> cursor;
+        private final IntPredicate check;
+
+        Step(String access, String description, long estimate, Supplier<OrdinalCursor> cursor, IntPredicate check) {
+            this.access = access;
+            this.description = description;
+            this.estimate = estimate;
+            this.cursor = cursor;
+            this.check = check;
+        }
+
+        @Override
+        public String toString() {
+            String line = String.format("%-11s %s", access, description);
+            return estimate >= 0 ? line + " (~" + estimate + ")" : line;
+        }
+    }
+}
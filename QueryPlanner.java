@@ -0,0 +1,221 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Chooses how to evaluate an {@link ApplicantQuery} against the applicant indexes.
+ *
+ * Every criterion that an index can answer gets a cardinality estimate from that index.
+ * The one with the smallest estimate drives the query and produces the candidates;
+ * further skill criteria are intersected with it, since a posting list can skip ahead
+ * to each candidate cheaply. Everything else is checked on the surviving candidates only,
+ * cheapest check first: experience and applicant type are array lookups, the specialty
+ * and field of study need the applicant object, and keyword and custom checks come last.
+ * A query without any indexed criterion scans every applicant.
+ *
+ * Planning reads the indexes, so it must run under the applicant index read lock.
+ */
+public class QueryPlanner {
+    private SkillIndex skillIndex;
+    private ExperienceIndex experienceIndex;
+    private TrigramIndex nameIndex;
+    private TrigramIndex emailIndex;
+    private List<Applicant> applicantsByOrdinal;
+    // Null unless applicants are kept in a store; type and field checks then read its columns
+    private MappedApplicantStore applicantStore;
+
+    public QueryPlanner(SkillIndex skillIndex, ExperienceIndex experienceIndex, TrigramIndex nameIndex,
+                        TrigramIndex emailIndex, List<Applicant> applicantsByOrdinal) {
+        this(skillIndex, experienceIndex, nameIndex, emailIndex, applicantsByOrdinal, null);
+    }
+
+    /**
+     * Creates a planner over applicants kept in a store. Only criteria that take an
+     * Applicant object, i.e. query predicates, read an applicant back from it.
+     */
+    public QueryPlanner(SkillIndex skillIndex, ExperienceIndex experienceIndex, TrigramIndex nameIndex,
+                        TrigramIndex emailIndex, List<Applicant> applicantsByOrdinal, MappedApplicantStore applicantStore) {
+        this.skillIndex = skillIndex;
+        this.experienceIndex = experienceIndex;
+        this.nameIndex = nameIndex;
+        this.emailIndex = emailIndex;
+        this.applicantsByOrdinal = applicantsByOrdinal;
+        this.applicantStore = applicantStore;
+    }
+
+    /**
+     * Plans a query against the current index contents.
+     * @param query The criteria to match.
+     * @return The plan, which can be explained or run.
+     */
+    public QueryPlan plan(ApplicantQuery query) {
+        long total = applicantsByOrdinal.size();
+        List<Criterion> criteria = criteriaOf(query);
+
+        Criterion driver = null;
+        for (Criterion criterion : criteria) {
+            if (criterion.cursor != null && (driver == null || criterion.estimate < driver.estimate)) {
+                driver = criterion;
+            }
+        }
+
+        List<QueryPlan.Step> steps = new ArrayList<>();
+        long estimatedMatches;
+        if (driver != null) {
+            steps.add(new QueryPlan.Step("index scan", driver.description, driver.estimate, driver.cursor, null));
+            estimatedMatches = driver.estimate;
+        } else {
+            steps.add(new QueryPlan.Step("full scan", "all applicants", total,
+                                         () -> OrdinalCursor.all(applicantsByOrdinal.size()), null));
+            estimatedMatches = total;
+        }
+
+        List<Criterion> intersections = new ArrayList<>();
+        List<Criterion> checks = new ArrayList<>();
+        for (Criterion criterion : criteria) {
+            if (criterion != driver) {
+                (criterion.intersect ? intersections : checks).add(criterion);
+            }
+        }
+        intersections.sort(Comparator.comparingLong(c -> c.estimate));
+        // Unknown selectivity sorts after known selectivity of the same check cost
+        checks.sort(Comparator.<Criterion>comparingInt(c -> c.checkCost)
+                              .thenComparingLong(c -> c.estimate >= 0 ? c.estimate : Long.MAX_VALUE));
+        for (Criterion criterion : intersections) {
+            steps.add(new QueryPlan.Step("intersect", criterion.description, criterion.estimate, criterion.cursor, null));
+            estimatedMatches = scale(estimatedMatches, criterion.estimate, total);
+        }
+        for (Criterion criterion : checks) {
+            steps.add(new QueryPlan.Step("filter", criterion.description, criterion.estimate, null, criterion.check));
+            estimatedMatches = scale(estimatedMatches, criterion.estimate, total);
+        }
+        return new QueryPlan(query, steps, total, estimatedMatches);
+    }
+
+    private List<Criterion> criteriaOf(ApplicantQuery query) {
+        List<Criterion> criteria = new ArrayList<>();
+        long total = applicantsByOrdinal.size();
+
+        for (String skill : query.getAllSkills()) {
+            criteria.add(Criterion.indexed("skill = " + skill, skillIndex.count(skill),
+                                           () -> skillIndex.cursor(skill), true, 0, null));
+        }
+        for (List<String> group : query.getAnySkillGroups()) {
+            long estimate = 0;
+            for (String skill : group) {
+                estimate += skillIndex.count(skill);
+            }
+            criteria.add(Criterion.indexed("skill in " + group, Math.min(estimate, total),
+                                           () -> skillIndex.cursorAny(group), true, 0, null));
+        }
+        if (query.hasExperienceRange()) {
+            int min = query.getMinYears();
+            int max = query.getMaxYears();
+            criteria.add(Criterion.indexed(ApplicantQuery.describeYears(min, max), experienceIndex.estimateCount(min, max),
+                                           () -> experienceIndex.cursor(min, max), false, 1,
+                                           ordinal -> experienceIndex.matches(ordinal, min, max)));
+        }
+        if (query.getNameKeyword() != null) {
+            criteria.add(keyword("name", query.getNameKeyword(), nameIndex));
+        }
+        if (query.getEmailKeyword() != null) {
+            criteria.add(keyword("email", query.getEmailKeyword(), emailIndex));
+        }
+
+        // Each criterion is checked on its own, so contradictory ones simply match nothing
+        for (Class<? extends Applicant> type : query.getTypes()) {
+            IntPredicate check = applicantStore != null
+                    ? ordinal -> type.isAssignableFrom(MappedApplicantStore.typeClass(applicantStore.typeOf(ordinal)))
+                    : ordinal -> type.isInstance(applicantsByOrdinal.get(ordinal));
+            criteria.add(Criterion.check("type = " + type.getSimpleName(), 1, check));
+        }
+        if (query.getSpecialty() != null) {
+            String specialty = query.getSpecialty();
+            criteria.add(Criterion.check("specialty = " + specialty, 2, ordinal -> {
+                if (applicantStore != null) {
+                    return applicantStore.typeOf(ordinal) == MappedApplicantStore.TECH_APPLICANT
+                            && specialty.equalsIgnoreCase(applicantStore.extraOf(ordinal));
+                }
+                Applicant applicant = applicantsByOrdinal.get(ordinal);
+                return applicant instanceof TechApplicant
+                        && specialty.equalsIgnoreCase(((TechApplicant) applicant).getSpecialty());
+            }));
+        }
+        if (query.getFieldOfStudy() != null) {
+            String fieldOfStudy = query.getFieldOfStudy();
+            criteria.add(Criterion.check("field of study = " + fieldOfStudy, 2, ordinal -> {
+                if (applicantStore != null) {
+                    return applicantStore.typeOf(ordinal) == MappedApplicantStore.NON_TECH_APPLICANT
+                            && fieldOfStudy.equalsIgnoreCase(applicantStore.extraOf(ordinal));
+                }
+                Applicant applicant = applicantsByOrdinal.get(ordinal);
+                return applicant instanceof NonTechApplicant
+                        && fieldOfStudy.equalsIgnoreCase(((NonTechApplicant) applicant).getFieldOfStudy());
+            }));
+        }
+
+        List<String> descriptions = query.getPredicateDescriptions();
+        List<Predicate<Applicant>> predicates = query.getPredicates();
+        for (int i = 0; i < predicates.size(); i++) {
+            Predicate<Applicant> predicate = predicates.get(i);
+            criteria.add(Criterion.check(descriptions.get(i), 4,
+                                         ordinal -> predicate.test(applicantsByOrdinal.get(ordinal))));
+        }
+        return criteria;
+    }
+
+    private static Criterion keyword(String field, String keyword, TrigramIndex index) {
+        String description = field + " contains '" + keyword + "'";
+        String lower = keyword.toLowerCase();
+        IntPredicate check = ordinal -> index.contains(ordinal, lower);
+        if (lower.length() < 3) {
+            // No trigram to look up, so the index cannot narrow anything down
+            return Criterion.check(description, 3, check);
+        }
+        return Criterion.indexed(description, index.estimateCount(keyword), () -> index.cursor(keyword), false, 3, check);
+    }
+
+    /**
+     * Scales an estimate by the selectivity of one more criterion, assuming independence.
+     */
+    private static long scale(long estimate, long criterionEstimate, long total) {
+        if (criterionEstimate < 0 || total == 0) {
+            return estimate;
+        }
+        return Math.round((double) estimate * criterionEstimate / total);
+    }
+
+    private static class Criterion {
+        private final String description;
+        // Upper bound on the number of matches, or -1 if unknown
+        private final long estimate;
+        // Null if no index can produce the matches
+        private final Supplier<OrdinalCursor> cursor;
+        // Whether to intersect the cursor rather than run the check when not driving
+        private final boolean intersect;
+        private final int checkCost;
+        private final IntPredicate check;
+
+        private Criterion(String description, long estimate, Supplier<OrdinalCursor> cursor, boolean intersect,
+                          int checkCost, IntPredicate check) {
+            this.description = description;
+            this.estimate = estimate;
+            this.cursor = cursor;
+            this.intersect = intersect;
+            this.checkCost = checkCost;
+            this.check = check;
+        }
+
+        static Criterion indexed(String description, long estimate, Supplier<OrdinalCursor> cursor, boolean intersect,
+                                 int checkCost, IntPredicate check) {
+            return new Criterion(description, estimate, cursor, intersect, checkCost, check);
+        }
+
+        static Criterion check(String description, int checkCost, IntPredicate check) {
+            return new Criterion(description, -1, null, false, checkCost, check);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A lazily read view of one job's score ranking, best first. Pages are read straight
+ * from the leaderboard, either in sequence, from a keyset token (score and application
+ * id of the last row seen) or by offset; nothing is copied beyond the page itself.
+ */
+public class RankingCursor {
+    private Leaderboard leaderboard;
+    private ServiceMetrics metrics;
+    // Position nextPage() resumes after, as ranked; null before the first page
+    private Leaderboard.Entry last;
+
+    /**
+     * @param leaderboard The job's leaderboard, or null for an unknown job.
+     * @param metrics Where page fetches are timed.
+     */
+    RankingCursor(Leaderboard leaderboard, ServiceMetrics metrics) {
+        this.leaderboard = leaderboard;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the next page, continuing where the previous call to this method stopped.
+     * @param limit The maximum number of applications on the page.
+     */
+    public ResultPage<Application> nextPage(int limit) {
+        List<Leaderboard.Entry> entries = last == null ? fetch(0, limit)
+                                                       : fetchAfter(last.getScore(), last.getApplicationId(), limit);
+        if (!entries.isEmpty()) {
+            last = entries.get(entries.size() - 1);
+        }
+        return toPage(entries, limit);
+    }
+
+    /**
+     * Returns the page that starts after a token from an earlier page.
+     * @param pageToken The token, or null for the first page.
+     * @param limit The maximum number of applications on the page.
+     * @throws IllegalArgumentException if the token did not come from a ranking page.
+     */
+    public ResultPage<Application> page(String pageToken, int limit) {
+        if (pageToken == null) {
+            return toPage(fetch(0, limit), limit);
+        }
+        int separator = pageToken.indexOf(':');
+        try {
+            int score = Integer.parseInt(pageToken.substring(0, Math.max(0, separator)));
+            long applicationId = Long.parseLong(pageToken.substring(separator + 1));
+            return toPage(fetchAfter(score, applicationId, limit), limit);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page token: " + pageToken);
+        }
+    }
+
+    /**
+     * Returns the page after skipping a number of ranked applications.
+     */
+    public ResultPage<Application> page(int offset, int limit) {
+        return toPage(fetch(offset, limit), limit);
+    }
+
+    /**
+     * Returns the whole ranking as a lazy stream, best first.
+     */
+    public Stream<Application> stream() {
+        return leaderboard != null ? leaderboard.stream() : Stream.empty();
+    }
+
+    /**
+     * Returns the number of ranked applications in constant time.
+     */
+    public long count() {
+        return leaderboard != null ? leaderboard.size() : 0;
+    }
+
+    private List<Leaderboard.Entry> fetch(int offset, int limit) {
+        long start = System.nanoTime();
+        try {
+            return leaderboard != null ? leaderboard.entries(offset, limit) : new ArrayList<>();
+        } finally {
+            metrics.record(ServiceOperation.FETCH_RANKING_PAGE, start);
+        }
+    }
+
+    private List<Leaderboard.Entry> fetchAfter(int score, long applicationId, int limit) {
+        long start = System.nanoTime();
+        try {
+            return leaderboard != null ? leaderboard.entriesAfter(score, applicationId, limit) : new ArrayList<>();
+        } finally {
+            metrics.record(ServiceOperation.FETCH_RANKING_PAGE, start);
+        }
+    }
+
+    /**
+     * A full page may be followed by more; its token is the position of its last row as
+     * ranked, not its live score, which a rescore may have changed since.
+     */
+    private static ResultPage<Application> toPage(List<Leaderboard.Entry> entries, int limit) {
+        List<Application> items = new ArrayList<>(entries.size());
+        for (Leaderboard.Entry entry : entries) {
+            items.add(entry.getApplication());
+        }
+        if (items.isEmpty() || items.size() < limit) {
+            return new ResultPage<>(items, null);
+        }
+        Leaderboard.Entry lastEntry = entries.get(entries.size() - 1);
+        return new ResultPage<>(items, lastEntry.getScore() + ":" + lastEntry.getApplicationId());
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * The outcome of rescoring every application for a job.
+ */
+public class RescoreReport {
+    private String jobId;
+    private int applicationsRescored;
+    private int scoresChanged;
+    private long elapsedNanos;
+
+    public RescoreReport(String jobId, int applicationsRescored, int scoresChanged, long elapsedNanos) {
+        this.jobId = jobId;
+        this.applicationsRescored = applicationsRescored;
+        this.scoresChanged = scoresChanged;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getJobId() {
+        return this.jobId;
+    }
+
+    public int getApplicationsRescored() {
+        return this.applicationsRescored;
+    }
+
+    public int getScoresChanged() {
+        return this.scoresChanged;
+    }
+
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * Returns the throughput of the run in applications per second.
+     */
+    public double getApplicationsPerSecond() {
+        return elapsedNanos > 0 ? applicationsRescored * 1_000_000_000.0 / elapsedNanos : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Rescored %d applications for job %s (%d changed) in %.1f ms, %.0f applications/s",
+                             applicationsRescored, jobId, scoresChanged, elapsedNanos / 1_000_000.0, getApplicationsPerSecond());
+    }
+}
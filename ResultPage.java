@@ -0,0 +1,30 @@
+import java.util.List;
+
+/**
+ * One page of results from a cursor, with the token to fetch the page after it.
+ */
+public class ResultPage<T> {
+    private List<T> items;
+    private String nextPageToken;
+
+    public ResultPage(List<T> items, String nextPageToken) {
+        this.items = items;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<T> getItems() {
+        return this.items;
+    }
+
+    /**
+     * Returns the token that resumes right after this page, or null if this is the last page.
+     * Tokens are keyset positions, so they stay valid while results are added or removed.
+     */
+    public String getNextPageToken() {
+        return this.nextPageToken;
+    }
+
+    public boolean hasMore() {
+        return this.nextPageToken != null;
+    }
+}
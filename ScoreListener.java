@@ -0,0 +1,12 @@
+/**
+ * Callback for structures that need to know when an application's score changes,
+ * such as the per-job {@link Leaderboard}.
+ */
+public interface ScoreListener {
+    /**
+     * Called after an application's score has been changed.
+     * @param application The application, already holding its new score.
+     * @param oldScore The score it had before the change.
+     */
+    void scoreChanged(Application application, int oldScore);
+}
@@ -0,0 +1,156 @@
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Scores applicants against jobs without repeating the job-side string work on every call.
+ * Each job is compiled once into a {@link JobProfile} of flags and cached by jobId; an
+ * applicant is compiled into {@link ApplicantFeatures}, its skills as a bitset over the
+ * shared skill dictionary. The engine does not keep those: the caller holds them for as
+ * long as it holds the applicant, as ATSService does by applicant ordinal. An evaluation
+ * is then a few bit tests and integer additions.
+ *
+ * The rules mirror {@link Applicant#evaluate}, {@link TechApplicant#evaluate} and
+ * {@link NonTechApplicant#evaluate} exactly. Applicants of any other subclass are
+ * scored by calling their own evaluate().
+ */
+public class ScoringEngine {
+    private SkillDictionary dictionary;
+    private int javaSkillId;
+    private int pythonSkillId;
+    private Map<Long, JobProfile> profilesByJobId;
+
+    public ScoringEngine(SkillDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.javaSkillId = dictionary.intern("Java");
+        this.pythonSkillId = dictionary.intern("Python");
+        this.profilesByJobId = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Scores an applicant for a job, compiling the applicant on the spot. Callers that score
+     * an applicant more than once should compile it once and keep the features.
+     * @param applicant The applicant.
+     * @param job The job they are being evaluated for.
+     * @return The same score the applicant's evaluate() would return.
+     */
+    public int score(Applicant applicant, Job job) {
+        return score(compile(applicant), applicant, job);
+    }
+
+    /**
+     * Scores an applicant for a job from its compiled features.
+     * @param features The features compiled from the applicant by {@link #compile}.
+     * @param applicant The applicant.
+     * @param job The job they are being evaluated for.
+     * @return The same score the applicant's evaluate() would return.
+     */
+    public int score(ApplicantFeatures features, Applicant applicant, Job job) {
+        if (features.kind == Kind.OTHER) {
+            return applicant.evaluate(job);
+        }
+        JobProfile profile = profileFor(job);
+        int years = features.yearsOfExperience;
+        int score = years >= 2 ? 20 : 0;
+        if (features.kind == Kind.TECH) {
+            if (profile.software && features.skills.get(javaSkillId)) {
+                score += 40;
+            }
+            if (profile.dataScience && features.skills.get(pythonSkillId)) {
+                score += 30;
+            }
+            score += years * 5;
+        } else if (features.kind == Kind.NON_TECH) {
+            if (profile.marketing && features.businessStudies) {
+                score += 35;
+            }
+            score += years * 3;
+        }
+        return score;
+    }
+
+    /**
+     * Drops the compiled profile of a job, e.g. after its title or department changed.
+     * @param jobId The job ID.
+     */
+    public void invalidateJob(long jobId) {
+        profilesByJobId.remove(jobId);
+    }
+
+    /**
+     * Returns the compiled profile of a job, compiling and caching it on first use.
+     */
+    public JobProfile profileFor(Job job) {
+        return profilesByJobId.computeIfAbsent(job.getId(), id -> new JobProfile(job));
+    }
+
+    /**
+     * Compiles the applicant-side inputs of the scoring rules.
+     * Compile again after the applicant's skills or experience change.
+     */
+    public ApplicantFeatures compile(Applicant applicant) {
+        return new ApplicantFeatures(applicant, dictionary);
+    }
+
+    private enum Kind {
+        BASE, TECH, NON_TECH, OTHER
+    }
+
+    /**
+     * The job-side inputs of the scoring rules, computed once per job.
+     */
+    public static class JobProfile {
+        private final boolean software;
+        private final boolean dataScience;
+        private final boolean marketing;
+
+        JobProfile(Job job) {
+            String title = job.getTitle().toLowerCase();
+            this.software = title.contains("software");
+            this.dataScience = title.contains("data science");
+            this.marketing = job.getDepartment().equalsIgnoreCase("Marketing");
+        }
+
+        public boolean isSoftware() {
+            return this.software;
+        }
+
+        public boolean isDataScience() {
+            return this.dataScience;
+        }
+
+        public boolean isMarketing() {
+            return this.marketing;
+        }
+    }
+
+    /**
+     * The applicant-side inputs of the scoring rules, compiled by {@link #compile}.
+     */
+    public static class ApplicantFeatures {
+        private final Kind kind;
+        private final int yearsOfExperience;
+        private final BitSet skills;
+        private final boolean businessStudies;
+
+        ApplicantFeatures(Applicant applicant, SkillDictionary dictionary) {
+            Class<?> type = applicant.getClass();
+            if (type == TechApplicant.class) {
+                this.kind = Kind.TECH;
+            } else if (type == NonTechApplicant.class) {
+                this.kind = Kind.NON_TECH;
+            } else if (type == Applicant.class) {
+                this.kind = Kind.BASE;
+            } else {
+                this.kind = Kind.OTHER;
+            }
+            this.yearsOfExperience = applicant.getYearsOfExperience();
+            this.skills = new BitSet();
+            for (String skill : applicant.getSkills()) {
+                skills.set(dictionary.intern(skill));
+            }
+            this.businessStudies = kind == Kind.NON_TECH
+                    && ((NonTechApplicant) applicant).getFieldOfStudy().equalsIgnoreCase("Business");
+        }
+    }
+}
@@ -0,0 +1,145 @@
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * Operational metrics for one ATSService: a latency histogram and call counter per
+ * {@link ServiceOperation}, plus gauges that are read when queried, such as store sizes
+ * and applications per stage.
+ *
+ * Recording a call only touches preallocated counters, so it is safe on every hot path.
+ * Everything can be queried in-process or dumped in the Prometheus text format.
+ */
+public class ServiceMetrics {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private LatencyHistogram[] latencies;
+    private List<Gauge> gauges;
+    private long createdAtNanos;
+
+    public ServiceMetrics() {
+        ServiceOperation[] operations = ServiceOperation.values();
+        this.latencies = new LatencyHistogram[operations.length];
+        for (int i = 0; i < operations.length; i++) {
+            this.latencies[i] = new LatencyHistogram();
+        }
+        this.gauges = new CopyOnWriteArrayList<>();
+        this.createdAtNanos = System.nanoTime();
+    }
+
+    /**
+     * Records a completed call.
+     * @param operation The call.
+     * @param startNanos The System.nanoTime() taken when the call started.
+     */
+    public void record(ServiceOperation operation, long startNanos) {
+        latencies[operation.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the latency histogram of a call, in nanoseconds.
+     */
+    public LatencyHistogram getLatency(ServiceOperation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    public long getCalls(ServiceOperation operation) {
+        return latencies[operation.ordinal()].getCount();
+    }
+
+    /**
+     * Returns the average calls per second since the metrics were created.
+     */
+    public double getThroughput(ServiceOperation operation) {
+        double seconds = (System.nanoTime() - createdAtNanos) / 1e9;
+        return seconds > 0 ? getCalls(operation) / seconds : 0;
+    }
+
+    /**
+     * Registers a gauge whose value is read each time the metrics are queried.
+     * @param name The metric name, e.g. "ats_applications".
+     * @param labels Prometheus labels without braces, e.g. stage="Offer"; empty for none.
+     * @param help A one-line description; only the first one registered for a name is used.
+     * @param value Reads the current value.
+     */
+    public void registerGauge(String name, String labels, String help, LongSupplier value) {
+        gauges.add(new Gauge(name, labels, help, value));
+    }
+
+    /**
+     * Reads every gauge.
+     * @return The current values keyed by name and labels, e.g. ats_applications{stage="Offer"}.
+     */
+    public Map<String, Long> getGauges() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Gauge gauge : gauges) {
+            values.put(gauge.series(), gauge.value.getAsLong());
+        }
+        return values;
+    }
+
+    /**
+     * Renders every metric in the Prometheus text exposition format. Latencies are
+     * reported as summaries in seconds.
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(8192);
+        out.append("# HELP ats_operation_calls_total Completed ATSService calls.\n");
+        out.append("# TYPE ats_operation_calls_total counter\n");
+        for (ServiceOperation operation : ServiceOperation.values()) {
+            out.append("ats_operation_calls_total{operation=\"").append(operation.getLabel()).append("\"} ")
+               .append(getCalls(operation)).append('\n');
+        }
+        out.append("# HELP ats_operation_duration_seconds Latency of ATSService calls.\n");
+        out.append("# TYPE ats_operation_duration_seconds summary\n");
+        for (ServiceOperation operation : ServiceOperation.values()) {
+            LatencyHistogram histogram = getLatency(operation);
+            String label = operation.getLabel();
+            for (double quantile : QUANTILES) {
+                out.append("ats_operation_duration_seconds{operation=\"").append(label)
+                   .append("\",quantile=\"").append(quantile).append("\"} ")
+                   .append(histogram.getValueAtPercentile(quantile * 100) / 1e9).append('\n');
+            }
+            out.append("ats_operation_duration_seconds_sum{operation=\"").append(label).append("\"} ")
+               .append(histogram.getSum() / 1e9).append('\n');
+            out.append("ats_operation_duration_seconds_count{operation=\"").append(label).append("\"} ")
+               .append(histogram.getCount()).append('\n');
+        }
+        out.append("# HELP ats_operation_max_duration_seconds Slowest ATSService call.\n");
+        out.append("# TYPE ats_operation_max_duration_seconds gauge\n");
+        for (ServiceOperation operation : ServiceOperation.values()) {
+            out.append("ats_operation_max_duration_seconds{operation=\"").append(operation.getLabel()).append("\"} ")
+               .append(getLatency(operation).getMax() / 1e9).append('\n');
+        }
+        String previousName = null;
+        for (Gauge gauge : gauges) {
+            if (!gauge.name.equals(previousName)) {
+                out.append("# HELP ").append(gauge.name).append(' ').append(gauge.help).append('\n');
+                out.append("# TYPE ").append(gauge.name).append(" gauge\n");
+                previousName = gauge.name;
+            }
+            out.append(gauge.series()).append(' ').append(gauge.value.getAsLong()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static class Gauge {
+        private final String name;
+        private final String labels;
+        private final String help;
+        private final LongSupplier value;
+
+        Gauge(String name, String labels, String help, LongSupplier value) {
+            this.name = name;
+            this.labels = labels;
+            this.help = help;
+            this.value = value;
+        }
+
+        String series() {
+            return labels.isEmpty() ? name : name + "{" + labels + "}";
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * The ATSService calls that {@link ServiceMetrics} times. The lowercase constant name is
+ * the operation label in the Prometheus output, e.g. operation="accept_application".
+ */
+public enum ServiceOperation {
+    POST_JOB,
+    UPDATE_JOB,
+    RESCORE_JOB,
+    ADD_APPLICANT,
+    UPDATE_APPLICANT,
+    ACCEPT_APPLICATION,
+    ACCEPT_APPLICATIONS,
+    ADVANCE_STAGE,
+    SEARCH_BY_SKILL,
+    SEARCH_ALL_SKILLS,
+    SEARCH_ANY_SKILL,
+    SEARCH_MIN_EXPERIENCE,
+    SEARCH_EXPERIENCE_RANGE,
+    SEARCH_SKILL_AND_EXPERIENCE,
+    SEARCH_KEYWORD,
+    SEARCH_QUERY,
+    EXPLAIN_QUERY,
+    RANK_BY_SCORE,
+    TOP_K,
+    RANK_PAGE,
+    PRINT_JOB_PIPELINE,
+    GET_STAGE_COUNTS,
+    GET_APPLICATIONS_IN_STAGE,
+    OPEN_SNAPSHOT,
+    GET_FUNNEL,
+    GET_TIME_IN_STAGE,
+    GET_DEPARTMENT_FUNNEL,
+    GET_DEPARTMENT_TIME_IN_STAGE,
+    FETCH_APPLICANT_PAGE,
+    FETCH_RANKING_PAGE,
+    CHECKPOINT;
+
+    private final String label = name().toLowerCase();
+
+    public String getLabel() {
+        return this.label;
+    }
+}
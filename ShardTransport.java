@@ -0,0 +1,89 @@
+import java.util.List;
+
+/**
+ * How a {@link ShardedATSService} reaches one shard. Each shard is a full ATSService
+ * holding a subset of the jobs; the transport decides whether it lives in the same JVM
+ * or behind a connection.
+ *
+ * Implementations must be safe to call from several threads at once, since searches
+ * are scattered to every shard in parallel.
+ */
+public interface ShardTransport {
+    /**
+     * Returns the stable name of the shard; jobs are assigned to shards by hashing it.
+     */
+    String getName();
+
+    void postJob(Job job);
+
+    /**
+     * Adds an applicant to this shard's search indexes.
+     * @return false if the shard already has an applicant with the same email.
+     */
+    boolean addApplicant(Applicant applicant);
+
+    /**
+     * Accepts an application for a job owned by this shard, first copying the applicant
+     * to this shard if it lives elsewhere.
+     * @return The id of the new application, or -1 if the applicant already applied to the job.
+     */
+    long acceptApplication(Applicant applicant, Job job);
+
+    /**
+     * Advances the stage of an application, if this shard holds it.
+     * @return false if the application is not on this shard.
+     */
+    boolean advanceStage(String applicationId, String newStage);
+
+    /**
+     * Runs a query against this shard's applicants.
+     * @return The matches, possibly including applicants also held by other shards.
+     */
+    List<Applicant> searchApplicants(ApplicantQuery query);
+
+    List<Application> rankByScore(String jobId);
+
+    /**
+     * Returns the k highest-scoring applications across every job of this shard, best first.
+     */
+    List<Application> topK(int k);
+
+    /**
+     * Returns the applicants whose emails this shard has registered, so a growing cluster
+     * can find the registrations a new shard takes over.
+     */
+    List<Applicant> registeredApplicants();
+
+    /**
+     * Takes over the email registrations of applicants moved from another shard, adding
+     * the applicants to this shard's search indexes.
+     */
+    void importApplicants(List<Applicant> applicants);
+
+    /**
+     * Gives up the email registrations of applicants moved to another shard. Copies the
+     * shard already holds stay searchable; searches merge them by applicant id.
+     */
+    void releaseApplicants(List<Applicant> applicants);
+
+    /**
+     * Returns the ids of the jobs this shard holds.
+     */
+    List<Long> jobIds();
+
+    /**
+     * Returns a job with its applications, for moving it to another shard.
+     * @return The partition, or null if this shard does not hold the job.
+     */
+    JobPartition exportJob(long jobId);
+
+    /**
+     * Takes over jobs exported from other shards, merging their stage histories in time order.
+     */
+    void importJobs(List<JobPartition> partitions);
+
+    /**
+     * Forgets a job that has been moved to another shard.
+     */
+    void dropJob(long jobId);
+}
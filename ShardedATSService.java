@@ -0,0 +1,366 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * A front end that spreads jobs over several ATSService shards, so capacity grows past
+ * what one JVM can hold. Each job lives on exactly one shard together with all of its
+ * applications, so intake and per-job rankings go to a single shard. A stage change is
+ * offered to every shard and applied by the one holding the application, so the front
+ * end keeps no routing state of its own and also reaches applications accepted directly
+ * on a shard.
+ *
+ * Jobs are assigned by rendezvous hashing: every shard scores the job id and the highest
+ * score wins. Adding a shard therefore only moves the jobs the new shard now wins, about
+ * 1/n of them, and {@link #addShard} moves them before the shard takes traffic.
+ *
+ * Applicants are added to the shard their email hashes to, so that shard alone decides
+ * whether an email is a duplicate, and are copied to the shard of every job they apply
+ * to. Emails are hashed the same rendezvous way, and {@link #addShard} also hands the new
+ * shard the email registrations it now owns, so duplicates are still caught afterwards. Searches are therefore scattered to all shards in parallel and the results merged
+ * without duplicates. Cross-job rankings gather each shard's top k and merge them.
+ *
+ * Shards are reached through a {@link ShardTransport}; with {@link InProcessShardTransport}
+ * the whole cluster runs in one JVM.
+ */
+public class ShardedATSService implements AutoCloseable {
+    /**
+     * The leaderboard order: best score first, then the earlier application.
+     */
+    static final Comparator<Application> RANK_ORDER =
+            Comparator.comparingInt(Application::getScore).reversed().thenComparingLong(Application::getId);
+
+    // Guarded by topologyLock: calls hold the read lock, rebalancing holds the write lock
+    private List<Shard> shards;
+    private ReadWriteLock topologyLock;
+    private ExecutorService scatterPool;
+    private EventLog events;
+
+    /**
+     * Creates a front end over the given shards that reports to the shared console event log.
+     */
+    public ShardedATSService(List<ShardTransport> transports) {
+        this(transports, EventLog.shared());
+    }
+
+    /**
+     * Creates a front end over the given shards.
+     * @param transports The shards; there must be at least one.
+     * @param events The event log; the caller remains responsible for closing it.
+     */
+    public ShardedATSService(List<ShardTransport> transports, EventLog events) {
+        if (transports.isEmpty()) {
+            throw new IllegalArgumentException("A sharded service needs at least one shard");
+        }
+        this.shards = new ArrayList<>();
+        for (ShardTransport transport : transports) {
+            this.shards.add(new Shard(transport));
+        }
+        this.topologyLock = new ReentrantReadWriteLock();
+        this.scatterPool = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "ats-shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.events = events;
+    }
+
+    /**
+     * Posts a job to the shard that owns it.
+     */
+    public void postJob(Job job) {
+        topologyLock.readLock().lock();
+        try {
+            ownerOf(job.getId()).transport.postJob(job);
+        } finally {
+            topologyLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an applicant to one shard, chosen by hashing the normalized email, so that
+     * shard alone can tell whether the email is already registered.
+     * @return false if an applicant with the same email was already added.
+     */
+    public boolean addApplicant(Applicant applicant) {
+        topologyLock.readLock().lock();
+        try {
+            return ownerOf(emailKey(applicant)).transport.addApplicant(applicant);
+        } finally {
+            topologyLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Accepts an application on the shard that owns the job.
+     * @return false if the applicant already applied to the job.
+     */
+    public boolean acceptApplication(Applicant applicant, Job job) {
+        topologyLock.readLock().lock();
+        try {
+            return ownerOf(job.getId()).transport.acceptApplication(applicant, job) >= 0;
+        } finally {
+            topologyLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Advances the stage of an application. Every shard is asked in parallel and the one
+     * holding the application applies the change.
+     */
+    public void advanceStage(String applicationId, String newStage) {
+        if (!scatter(shard -> shard.advanceStage(applicationId, newStage)).contains(Boolean.TRUE)) {
+            events.log(EventType.APPLICATION_NOT_FOUND, applicationId);
+        }
+    }
+
+    /**
+     * Searches every shard for applicants with a specific skill.
+     */
+    public List<Applicant> searchApplicants(String skill) {
+        return searchApplicants(new ApplicantQuery().withSkill(skill));
+    }
+
+    /**
+     * Searches every shard for applicants with at least a number of years of experience.
+     */
+    public List<Applicant> searchApplicants(int minYears) {
+        return searchApplicants(new ApplicantQuery().minYears(minYears));
+    }
+
+    /**
+     * Searches every shard in parallel and merges the matches.
+     * @param query The criteria to match.
+     * @return The matching applicants, each once, in the order they were created.
+     */
+    public List<Applicant> searchApplicants(ApplicantQuery query) {
+        ApplicantQuery snapshot = query.copy();
+        List<Applicant> all = new ArrayList<>();
+        for (List<Applicant> matches : scatter(shard -> shard.searchApplicants(snapshot))) {
+            all.addAll(matches);
+        }
+        // Copies of an applicant on several shards are the same applicant; keep one
+        all.sort(Comparator.comparingLong(Applicant::getId));
+        List<Applicant> merged = new ArrayList<>(all.size());
+        for (Applicant applicant : all) {
+            if (merged.isEmpty() || merged.get(merged.size() - 1).getId() != applicant.getId()) {
+                merged.add(applicant);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Ranks the applications for a job, best first. Only the shard that owns the job is asked.
+     */
+    public List<Application> rankByScore(String jobId) {
+        topologyLock.readLock().lock();
+        try {
+            return ownerOf(IdAllocator.parse(jobId, "J-")).transport.rankByScore(jobId);
+        } finally {
+            topologyLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the k highest-scoring applications across every job on every shard.
+     * Each shard returns its own top k and the lists are merged, so no shard sends more
+     * than k applications.
+     */
+    public List<Application> topK(int k) {
+        List<List<Application>> perShard = scatter(shard -> shard.topK(k));
+        // k-way merge: the queue holds the index of each list with entries left, by its head
+        int[] positions = new int[perShard.size()];
+        PriorityQueue<Integer> heads = new PriorityQueue<>(
+                (a, b) -> RANK_ORDER.compare(perShard.get(a).get(positions[a]), perShard.get(b).get(positions[b])));
+        for (int i = 0; i < perShard.size(); i++) {
+            if (!perShard.get(i).isEmpty()) {
+                heads.add(i);
+            }
+        }
+        List<Application> merged = new ArrayList<>(k);
+        while (merged.size() < k && !heads.isEmpty()) {
+            int list = heads.poll();
+            merged.add(perShard.get(list).get(positions[list]++));
+            if (positions[list] < perShard.get(list).size()) {
+                heads.add(list);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Adds a shard and moves to it every job it now owns, with their applications, and
+     * the registrations of every email it now owns, with their applicants.
+     * Other calls wait while jobs and emails are moving.
+     * @param transport The new shard.
+     * @return The number of jobs moved.
+     */
+    public int addShard(ShardTransport transport) {
+        topologyLock.writeLock().lock();
+        try {
+            Shard added = new Shard(transport);
+            List<Shard> grown = new ArrayList<>(shards);
+            grown.add(added);
+            List<JobPartition> movedJobs = new ArrayList<>();
+            List<Shard> movedFrom = new ArrayList<>();
+            for (Shard shard : shards) {
+                for (long jobId : shard.transport.jobIds()) {
+                    // With rendezvous hashing a job either stays put or goes to the new shard
+                    if (ownerOf(jobId, grown) == added) {
+                        JobPartition partition = shard.transport.exportJob(jobId);
+                        if (partition != null) {
+                            movedJobs.add(partition);
+                            movedFrom.add(shard);
+                        }
+                    }
+                }
+            }
+            // Imported together, so the new shard's stage history is in time order
+            transport.importJobs(movedJobs);
+            for (int i = 0; i < movedJobs.size(); i++) {
+                movedFrom.get(i).transport.dropJob(movedJobs.get(i).getJob().getId());
+            }
+            int moved = movedJobs.size();
+            int movedEmails = 0;
+            for (Shard shard : shards) {
+                List<Applicant> moving = new ArrayList<>();
+                for (Applicant applicant : shard.transport.registeredApplicants()) {
+                    // Copies made for applications are registered too; only the owner hands over
+                    long key = emailKey(applicant);
+                    if (ownerOf(key) == shard && ownerOf(key, grown) == added) {
+                        moving.add(applicant);
+                    }
+                }
+                if (!moving.isEmpty()) {
+                    transport.importApplicants(moving);
+                    shard.transport.releaseApplicants(moving);
+                    movedEmails += moving.size();
+                }
+            }
+            shards = grown;
+            events.log(EventType.SHARD_ADDED, transport.getName(), null, moved, movedEmails);
+            return moved;
+        } finally {
+            topologyLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the shards, in the order they were added.
+     */
+    public List<ShardTransport> getShards() {
+        topologyLock.readLock().lock();
+        try {
+            List<ShardTransport> transports = new ArrayList<>(shards.size());
+            for (Shard shard : shards) {
+                transports.add(shard.transport);
+            }
+            return transports;
+        } finally {
+            topologyLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the shard that owns a job.
+     */
+    public ShardTransport shardFor(String jobId) {
+        topologyLock.readLock().lock();
+        try {
+            return ownerOf(IdAllocator.parse(jobId, "J-")).transport;
+        } finally {
+            topologyLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stops the scatter threads. The shards themselves are left open.
+     */
+    @Override
+    public void close() {
+        scatterPool.shutdown();
+    }
+
+    /**
+     * Calls every shard in parallel and waits for all of them.
+     * @return The results, in shard order.
+     */
+    private <T> List<T> scatter(Function<ShardTransport, T> call) {
+        topologyLock.readLock().lock();
+        try {
+            List<Future<T>> futures = new ArrayList<>(shards.size());
+            for (Shard shard : shards) {
+                futures.add(scatterPool.submit(() -> call.apply(shard.transport)));
+            }
+            List<T> results = new ArrayList<>(futures.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Shard " + shards.get(i).transport.getName() + " failed", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the shards", e);
+                }
+            }
+            return results;
+        } finally {
+            topologyLock.readLock().unlock();
+        }
+    }
+
+    private static long emailKey(Applicant applicant) {
+        return DuplicateDetector.emailHash(DuplicateDetector.normalizeEmail(applicant.getEmail()));
+    }
+
+    private Shard ownerOf(long key) {
+        return ownerOf(key, shards);
+    }
+
+    /**
+     * Rendezvous hashing: the shard with the highest score for the key owns it.
+     */
+    private static Shard ownerOf(long key, List<Shard> candidates) {
+        Shard owner = null;
+        long best = 0;
+        for (Shard shard : candidates) {
+            long score = mix(key * 0x9E3779B97F4A7C15L + shard.seed);
+            if (owner == null || Long.compareUnsigned(score, best) > 0) {
+                owner = shard;
+                best = score;
+            }
+        }
+        return owner;
+    }
+
+    // The SplitMix64 finalizer: spreads nearby inputs over the whole 64-bit range
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static class Shard {
+        private final ShardTransport transport;
+        // A 64-bit FNV-1a hash of the shard name
+        private final long seed;
+
+        Shard(ShardTransport transport) {
+            this.transport = transport;
+            long hash = 0xCBF29CE484222325L;
+            for (char c : transport.getName().toCharArray()) {
+                hash = (hash ^ c) * 0x100000001B3L;
+            }
+            this.seed = mix(hash);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns skill names to small integer ids so indexes can refer to skills
+ * without holding (or comparing) a String per applicant.
+ * Lookups are lock-free; assigning a new id is synchronized.
+ */
+public class SkillDictionary {
+    private Map<String, Integer> idsBySkill;
+    private List<String> skillsById;
+
+    public SkillDictionary() {
+        this.idsBySkill = new ConcurrentHashMap<>();
+        this.skillsById = new ArrayList<>();
+    }
+
+    /**
+     * Returns the id of a skill, assigning a new one if the skill has not been seen before.
+     * @param skill The skill name.
+     * @return The interned id.
+     */
+    public int intern(String skill) {
+        Integer id = idsBySkill.get(skill);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = idsBySkill.get(skill);
+            if (id == null) {
+                id = skillsById.size();
+                skillsById.add(skill);
+                idsBySkill.put(skill, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Looks up the id of a skill without assigning one.
+     * @param skill The skill name.
+     * @return The interned id, or -1 if the skill is unknown.
+     */
+    public int idOf(String skill) {
+        Integer id = idsBySkill.get(skill);
+        return id != null ? id : -1;
+    }
+
+    public synchronized String skillOf(int id) {
+        return this.skillsById.get(id);
+    }
+
+    public synchronized int size() {
+        return this.skillsById.size();
+    }
+}
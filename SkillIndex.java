@@ -0,0 +1,136 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Inverted index from interned skill to the sorted ordinals of the applicants who list it.
+ * Multi-skill queries are answered by intersecting or merging posting lists.
+ */
+public class SkillIndex {
+    private static final int[] NONE = new int[0];
+
+    private SkillDictionary dictionary;
+    private List<OrdinalList> postings;
+
+    public SkillIndex(SkillDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.postings = new ArrayList<>();
+    }
+
+    /**
+     * Indexes the skills of an applicant.
+     * @param ordinal The applicant ordinal; must be larger than any ordinal added before.
+     * @param skills The applicant's skills.
+     */
+    public void add(int ordinal, Collection<String> skills) {
+        for (String skill : skills) {
+            int id = dictionary.intern(skill);
+            while (postings.size() <= id) {
+                postings.add(new OrdinalList());
+            }
+            postings.get(id).add(ordinal);
+        }
+    }
+
+    /**
+     * Returns the ordinals of applicants with a given skill.
+     * @param skill The skill to look up.
+     * @return A sorted array of ordinals.
+     */
+    public int[] query(String skill) {
+        OrdinalList posting = postingFor(skill);
+        return posting != null ? posting.toArray() : NONE;
+    }
+
+    /**
+     * Returns the number of applicants with a given skill.
+     */
+    public int count(String skill) {
+        OrdinalList posting = postingFor(skill);
+        return posting != null ? posting.size() : 0;
+    }
+
+    /**
+     * Returns the ordinals of applicants that have every one of the given skills.
+     * Posting lists are intersected smallest first so the working set only shrinks.
+     */
+    public int[] queryAll(Collection<String> skills) {
+        List<OrdinalList> lists = new ArrayList<>();
+        for (String skill : skills) {
+            OrdinalList posting = postingFor(skill);
+            if (posting == null) {
+                return NONE;
+            }
+            lists.add(posting);
+        }
+        if (lists.isEmpty()) {
+            return NONE;
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        int[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = OrdinalList.intersect(result, lists.get(i).toArray());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the ordinals of applicants that have at least one of the given skills.
+     */
+    public int[] queryAny(Collection<String> skills) {
+        int[] result = NONE;
+        for (String skill : skills) {
+            OrdinalList posting = postingFor(skill);
+            if (posting != null) {
+                result = OrdinalList.union(result, posting.toArray());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a lazy cursor over the applicants with a given skill.
+     */
+    public OrdinalCursor cursor(String skill) {
+        OrdinalList posting = postingFor(skill);
+        return posting != null ? OrdinalCursor.of(posting) : OrdinalCursor.empty();
+    }
+
+    /**
+     * Returns a lazy cursor over the applicants that have every one of the given skills.
+     */
+    public OrdinalCursor cursorAll(Collection<String> skills) {
+        List<OrdinalCursor> cursors = new ArrayList<>();
+        for (String skill : skills) {
+            OrdinalList posting = postingFor(skill);
+            if (posting == null) {
+                return OrdinalCursor.empty();
+            }
+            cursors.add(OrdinalCursor.of(posting));
+        }
+        return OrdinalCursor.and(cursors);
+    }
+
+    /**
+     * Returns a lazy cursor over the applicants that have at least one of the given skills.
+     */
+    public OrdinalCursor cursorAny(Collection<String> skills) {
+        List<OrdinalCursor> cursors = new ArrayList<>();
+        for (String skill : skills) {
+            OrdinalList posting = postingFor(skill);
+            if (posting != null) {
+                cursors.add(OrdinalCursor.of(posting));
+            }
+        }
+        return OrdinalCursor.or(cursors, false);
+    }
+
+    public SkillDictionary getDictionary() {
+        return this.dictionary;
+    }
+
+    private OrdinalList postingFor(String skill) {
+        int id = dictionary.idOf(skill);
+        return id >= 0 && id < postings.size() ? postings.get(id) : null;
+    }
+}
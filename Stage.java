@@ -0,0 +1,38 @@
+/**
+ * The registered stages an application moves through, in pipeline order.
+ */
+public enum Stage {
+    APPLIED("Applied"),
+    SCREENING("Screening"),
+    INTERVIEW("Interview"),
+    OFFER("Offer");
+
+    private final String displayName;
+
+    Stage(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return this.displayName;
+    }
+
+    /**
+     * Looks up a stage by its display name or constant name, ignoring case.
+     * @param name The stage name (e.g., "Screening").
+     * @return The matching stage, or null if no stage has that name.
+     */
+    public static Stage fromName(String name) {
+        for (Stage stage : values()) {
+            if (stage.displayName.equalsIgnoreCase(name) || stage.name().equalsIgnoreCase(name)) {
+                return stage;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return this.displayName;
+    }
+}
@@ -0,0 +1,439 @@
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * An append-only log of every stage transition, kept in time order for funnel analytics.
+ *
+ * Transitions are stored column-wise in fixed-size segments of primitive arrays
+ * (timestamp, application, job, department, stages left and entered, time spent in the
+ * stage left, position among the application's transitions), about 44 bytes each with no
+ * object per transition, plus 8 bytes for their position in a per-job index. Timestamps
+ * come from an injectable clock and never decrease, so a time range maps to a contiguous
+ * run found by binary search.
+ *
+ * {@link #removeJob} drops a job's transitions, e.g. once it has moved to another shard.
+ * Its rows are blanked in place and no longer counted; once they make up half the log,
+ * the live rows are copied into new segments and the old ones freed.
+ *
+ * How far each job's and department's applications got is maintained as transitions are
+ * appended, so funnels are read in constant time. Median time-in-stage is computed by a
+ * parallel scan over the segments.
+ *
+ * Appends are serialized; reads run concurrently with them and see every transition
+ * appended before they started. Each transition is also handed out as a
+ * {@link StageTransition}, so the service can log and snapshot it and move it with its job
+ * to another shard; {@link #restore} puts it back and skips transitions already present.
+ */
+public class StageHistory {
+    private static final int SEGMENT_BITS = 14;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final Stage[] STAGES = Stage.values();
+    // Stage id recorded for the "from" side of a submission, and both sides of a removed row
+    private static final byte NO_STAGE = -1;
+    private static final long REMOVED_JOB = -1;
+
+    private Clock clock;
+    // Segments and size published together; appends fill a slot before publishing a new log
+    private volatile Log log;
+    // Everything below is guarded by this
+    private long lastTimestamp;
+    private long removedRows;
+    private Map<Long, Positions> positionsByJob;
+    private Map<Long, Track> tracks;
+    private Map<Long, long[]> reachedByJob;
+    private Map<String, long[]> reachedByDepartment;
+    private Map<String, Integer> departmentIds;
+    private List<String> departments;
+
+    public StageHistory(Clock clock) {
+        this.clock = clock;
+        this.log = new Log(new Segment[0], 0);
+        this.positionsByJob = new HashMap<>();
+        this.tracks = new HashMap<>();
+        this.reachedByJob = new HashMap<>();
+        this.reachedByDepartment = new HashMap<>();
+        this.departmentIds = new HashMap<>();
+        this.departments = new ArrayList<>();
+    }
+
+    /**
+     * Appends a transition, stamped with the current time of the clock.
+     * @param application The application that moved.
+     * @param from The stage it left, or null when it was just submitted.
+     * @param to The stage it entered.
+     * @return The transition as recorded, e.g. for the write-ahead log.
+     */
+    public synchronized StageTransition record(Application application, Stage from, Stage to) {
+        long now = Math.max(clock.millis(), lastTimestamp);
+        Track track = tracks.get(application.getId());
+        int sequence = track != null ? track.transitions : 0;
+        Job job = application.getJob();
+        append(now, now, application.getId(), job, from, to, sequence);
+        return new StageTransition(application.getId(), job.getId(), sequence, now, from, to);
+    }
+
+    /**
+     * Appends a transition recorded earlier, e.g. replayed from the log or moved from
+     * another shard, unless the history already has it. A timestamp older than the newest
+     * one is moved up to it, so the history stays in time order; time in stage is still
+     * measured from the original timestamps.
+     * @param transition The transition.
+     * @param job The job of the application, for its current department.
+     */
+    public synchronized void restore(StageTransition transition, Job job) {
+        Track track = tracks.get(transition.getApplicationId());
+        if (track != null && track.transitions > transition.getSequence()) {
+            return;
+        }
+        append(Math.max(transition.getTimestamp(), lastTimestamp), transition.getTimestamp(),
+               transition.getApplicationId(), job, transition.getFrom(), transition.getTo(), transition.getSequence());
+    }
+
+    /**
+     * Returns the transitions of a job's applications, in time order. Only the job's own
+     * rows are read, through the per-job index.
+     */
+    public synchronized List<StageTransition> transitionsForJob(long jobId) {
+        Positions positions = positionsByJob.get(jobId);
+        List<StageTransition> transitions = new ArrayList<>(positions != null ? positions.size : 0);
+        Segment[] segs = log.segments;
+        for (int i = 0; positions != null && i < positions.size; i++) {
+            transitions.add(transitionAt(segs, positions.items[i]));
+        }
+        return transitions;
+    }
+
+    /**
+     * Calls an action for every transition recorded before the call, in time order.
+     */
+    public void forEachTransition(Consumer<StageTransition> action) {
+        Log current = log;
+        for (long i = 0; i < current.size; i++) {
+            StageTransition transition = transitionAt(current.segments, i);
+            if (transition != null) {
+                action.accept(transition);
+            }
+        }
+    }
+
+    /**
+     * Drops every transition of a job and its applications' progress, so the funnels,
+     * medians and counts no longer include them and a later {@link #restore} of them starts
+     * afresh. Reads running at the same time may still count some of them.
+     */
+    public synchronized void removeJob(long jobId) {
+        Positions positions = positionsByJob.remove(jobId);
+        reachedByJob.remove(jobId);
+        if (positions == null) {
+            return;
+        }
+        Segment[] segs = log.segments;
+        // Replay the job's progress in append order to take back what it added per department
+        Map<Long, Integer> furthest = new HashMap<>();
+        for (int i = 0; i < positions.size; i++) {
+            long index = positions.items[i];
+            Segment segment = segs[(int) (index >>> SEGMENT_BITS)];
+            int offset = (int) (index & (SEGMENT_SIZE - 1));
+            long applicationId = segment.applicationIds[offset];
+            int to = segment.toStages[offset];
+            int reached = furthest.getOrDefault(applicationId, -1);
+            if (to > reached) {
+                long[] byDepartment = reachedByDepartment.get(departments.get(segment.departmentIds[offset]));
+                for (int stage = reached + 1; stage <= to; stage++) {
+                    byDepartment[stage]--;
+                }
+                furthest.put(applicationId, to);
+            }
+            tracks.remove(applicationId);
+            segment.toStages[offset] = NO_STAGE;
+            segment.fromStages[offset] = NO_STAGE;
+            segment.jobIds[offset] = REMOVED_JOB;
+            segment.departmentIds[offset] = -1;
+        }
+        removedRows += positions.size;
+        if (removedRows >= SEGMENT_SIZE && removedRows * 2 >= log.size) {
+            compact();
+        }
+    }
+
+    /**
+     * Copies the live rows into new segments, keeping their order, and rebuilds the
+     * per-job index over them.
+     */
+    private void compact() {
+        Log current = log;
+        Segment[] compacted = new Segment[(int) ((current.size - removedRows + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+        long next = 0;
+        positionsByJob.clear();
+        for (long i = 0; i < current.size; i++) {
+            Segment segment = current.segments[(int) (i >>> SEGMENT_BITS)];
+            int offset = (int) (i & (SEGMENT_SIZE - 1));
+            if (segment.toStages[offset] == NO_STAGE) {
+                continue;
+            }
+            int segmentIndex = (int) (next >>> SEGMENT_BITS);
+            if (compacted[segmentIndex] == null) {
+                compacted[segmentIndex] = new Segment();
+            }
+            segment.copyTo(offset, compacted[segmentIndex], (int) (next & (SEGMENT_SIZE - 1)));
+            positionsByJob.computeIfAbsent(segment.jobIds[offset], id -> new Positions()).add(next);
+            next++;
+        }
+        removedRows = 0;
+        log = new Log(compacted, next);
+    }
+
+    // Returns the transition in a row, or null if its job was removed
+    private static StageTransition transitionAt(Segment[] segs, long index) {
+        Segment segment = segs[(int) (index >>> SEGMENT_BITS)];
+        int offset = (int) (index & (SEGMENT_SIZE - 1));
+        byte from = segment.fromStages[offset];
+        byte to = segment.toStages[offset];
+        if (to == NO_STAGE) {
+            return null;
+        }
+        return new StageTransition(segment.applicationIds[offset], segment.jobIds[offset],
+                                   segment.sequences[offset], segment.timestamps[offset],
+                                   from != NO_STAGE ? STAGES[from] : null, STAGES[to]);
+    }
+
+    // Callers hold the lock and pass a timestamp no older than lastTimestamp; dwell is timed by happenedAt
+    private void append(long now, long happenedAt, long applicationId, Job job, Stage from, Stage to, int sequence) {
+        lastTimestamp = now;
+        String department = String.valueOf(job.getDepartment());
+        Track track = tracks.get(applicationId);
+        long dwell = -1;
+        if (track == null) {
+            track = new Track();
+            tracks.put(applicationId, track);
+        } else {
+            dwell = happenedAt - track.enteredAt;
+        }
+        track.enteredAt = happenedAt;
+        track.transitions = sequence + 1;
+        if (to.ordinal() > track.furthest) {
+            long[] byJob = reachedByJob.computeIfAbsent(job.getId(), id -> new long[STAGES.length]);
+            long[] byDepartment = reachedByDepartment.computeIfAbsent(department, d -> new long[STAGES.length]);
+            for (int stage = track.furthest + 1; stage <= to.ordinal(); stage++) {
+                byJob[stage]++;
+                byDepartment[stage]++;
+            }
+            track.furthest = to.ordinal();
+        }
+
+        long index = log.size;
+        int offset = (int) (index & (SEGMENT_SIZE - 1));
+        int segmentIndex = (int) (index >>> SEGMENT_BITS);
+        Segment[] segs = log.segments;
+        if (segmentIndex == segs.length) {
+            segs = Arrays.copyOf(segs, segmentIndex + 1);
+            segs[segmentIndex] = new Segment();
+        }
+        Segment segment = segs[segmentIndex];
+        segment.timestamps[offset] = now;
+        segment.applicationIds[offset] = applicationId;
+        segment.jobIds[offset] = job.getId();
+        segment.departmentIds[offset] = departmentId(department);
+        segment.fromStages[offset] = from != null ? (byte) from.ordinal() : NO_STAGE;
+        segment.toStages[offset] = (byte) to.ordinal();
+        segment.dwellMillis[offset] = dwell;
+        segment.sequences[offset] = sequence;
+        positionsByJob.computeIfAbsent(job.getId(), id -> new Positions()).add(index);
+        log = new Log(segs, index + 1);
+    }
+
+    /**
+     * Returns the number of transitions kept, not counting those of removed jobs.
+     */
+    public synchronized long size() {
+        return log.size - removedRows;
+    }
+
+    /**
+     * Returns how far the applications for a job got through the pipeline.
+     */
+    public synchronized FunnelStats funnelForJob(long jobId) {
+        long[] reached = reachedByJob.get(jobId);
+        return new FunnelStats("job J-" + jobId, reached != null ? reached.clone() : new long[STAGES.length]);
+    }
+
+    /**
+     * Returns how far the applications for the jobs of a department got through the pipeline.
+     * Each transition counts toward the department its job was in at the time.
+     */
+    public synchronized FunnelStats funnelForDepartment(String department) {
+        long[] reached = reachedByDepartment.get(department);
+        return new FunnelStats("department " + department, reached != null ? reached.clone() : new long[STAGES.length]);
+    }
+
+    /**
+     * Returns the median time the applications for a job spent in a stage before leaving it.
+     * Applications still in the stage are not counted.
+     * @return The median in milliseconds, or -1 if no application has left the stage yet.
+     */
+    public long medianTimeInStage(long jobId, Stage stage) {
+        return medianDwell(stage, false, jobId);
+    }
+
+    /**
+     * Returns the median time the applications for a department's jobs spent in a stage
+     * before leaving it.
+     * @return The median in milliseconds, or -1 if no application has left the stage yet.
+     */
+    public long medianTimeInStage(String department, Stage stage) {
+        Integer id;
+        synchronized (this) {
+            id = departmentIds.get(department);
+        }
+        return id != null ? medianDwell(stage, true, id) : -1;
+    }
+
+    /**
+     * Counts the transitions into a stage within a time range, e.g. offers made last month.
+     * @param to The stage entered.
+     * @param fromMillis The start of the range (inclusive), in clock milliseconds.
+     * @param untilMillis The end of the range (exclusive), in clock milliseconds.
+     */
+    public long countTransitions(Stage to, long fromMillis, long untilMillis) {
+        Log current = log;
+        long n = current.size;
+        Segment[] segs = current.segments;
+        long first = firstAtOrAfter(segs, n, fromMillis);
+        long last = firstAtOrAfter(segs, n, untilMillis);
+        long count = 0;
+        for (long i = first; i < last; i++) {
+            if (segs[(int) (i >>> SEGMENT_BITS)].toStages[(int) (i & (SEGMENT_SIZE - 1))] == to.ordinal()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long medianDwell(Stage stage, boolean byDepartment, long key) {
+        Log current = log;
+        long n = current.size;
+        Segment[] segs = current.segments;
+        int segmentCount = (int) ((n + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+        long[] dwells = IntStream.range(0, segmentCount)
+                                 .parallel()
+                                 .mapToObj(s -> segs[s].dwellsLeaving(stage, byDepartment, key,
+                                                                      (int) Math.min(SEGMENT_SIZE, n - ((long) s << SEGMENT_BITS))))
+                                 .flatMapToLong(LongStream::of)
+                                 .toArray();
+        if (dwells.length == 0) {
+            return -1;
+        }
+        Arrays.sort(dwells);
+        return (dwells[(dwells.length - 1) / 2] + dwells[dwells.length / 2]) / 2;
+    }
+
+    /**
+     * Binary-searches the time-ordered log for the first transition at or after a time.
+     */
+    private static long firstAtOrAfter(Segment[] segs, long n, long millis) {
+        long low = 0;
+        long high = n;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (segs[(int) (mid >>> SEGMENT_BITS)].timestamps[(int) (mid & (SEGMENT_SIZE - 1))] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int departmentId(String department) {
+        Integer id = departmentIds.get(department);
+        if (id == null) {
+            id = departments.size();
+            departments.add(department);
+            departmentIds.put(department, id);
+        }
+        return id;
+    }
+
+    private static class Segment {
+        private final long[] timestamps = new long[SEGMENT_SIZE];
+        private final long[] applicationIds = new long[SEGMENT_SIZE];
+        private final long[] jobIds = new long[SEGMENT_SIZE];
+        private final int[] departmentIds = new int[SEGMENT_SIZE];
+        private final byte[] fromStages = new byte[SEGMENT_SIZE];
+        private final byte[] toStages = new byte[SEGMENT_SIZE];
+        // Time spent in the stage left, or -1 if it is not known
+        private final long[] dwellMillis = new long[SEGMENT_SIZE];
+        private final int[] sequences = new int[SEGMENT_SIZE];
+
+        void copyTo(int offset, Segment target, int targetOffset) {
+            target.timestamps[targetOffset] = timestamps[offset];
+            target.applicationIds[targetOffset] = applicationIds[offset];
+            target.jobIds[targetOffset] = jobIds[offset];
+            target.departmentIds[targetOffset] = departmentIds[offset];
+            target.fromStages[targetOffset] = fromStages[offset];
+            target.toStages[targetOffset] = toStages[offset];
+            target.dwellMillis[targetOffset] = dwellMillis[offset];
+            target.sequences[targetOffset] = sequences[offset];
+        }
+
+        long[] dwellsLeaving(Stage stage, boolean byDepartment, long key, int end) {
+            long[] out = new long[16];
+            int n = 0;
+            for (int i = 0; i < end; i++) {
+                if (fromStages[i] == stage.ordinal() && dwellMillis[i] >= 0
+                        && (byDepartment ? departmentIds[i] == key : jobIds[i] == key)) {
+                    if (n == out.length) {
+                        out = Arrays.copyOf(out, n * 2);
+                    }
+                    out[n++] = dwellMillis[i];
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+    }
+
+    /**
+     * The segments and the number of rows filled in them, as one published version.
+     */
+    private static class Log {
+        private final Segment[] segments;
+        private final long size;
+
+        Log(Segment[] segments, long size) {
+            this.segments = segments;
+            this.size = size;
+        }
+    }
+
+    /**
+     * The rows of one job, in append order.
+     */
+    private static class Positions {
+        private long[] items = new long[4];
+        private int size;
+
+        void add(long index) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = index;
+        }
+    }
+
+    /**
+     * Per-application state needed to extend the funnels and time the next transition.
+     */
+    private static class Track {
+        private long enteredAt;
+        private int furthest = -1;
+        // The number of transitions recorded for the application
+        private int transitions;
+    }
+}
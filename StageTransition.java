@@ -0,0 +1,55 @@
+/**
+ * One stage transition of an application, as recorded in the {@link StageHistory}. This is
+ * the form a transition is logged, snapshotted and moved between shards in.
+ */
+public class StageTransition {
+    private long applicationId;
+    private long jobId;
+    private int sequence;
+    private long timestamp;
+    private Stage from;
+    private Stage to;
+
+    public StageTransition(long applicationId, long jobId, int sequence, long timestamp, Stage from, Stage to) {
+        this.applicationId = applicationId;
+        this.jobId = jobId;
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.from = from;
+        this.to = to;
+    }
+
+    public long getApplicationId() {
+        return this.applicationId;
+    }
+
+    public long getJobId() {
+        return this.jobId;
+    }
+
+    /**
+     * Returns the position of this transition among its application's transitions, from 0.
+     * Restoring a transition the history already has is a no-op, recognized by this number.
+     */
+    public int getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * Returns when the transition happened, in clock milliseconds.
+     */
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    /**
+     * Returns the stage left, or null when the application was just submitted.
+     */
+    public Stage getFrom() {
+        return this.from;
+    }
+
+    public Stage getTo() {
+        return this.to;
+    }
+}
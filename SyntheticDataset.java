@@ -0,0 +1,118 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates realistic-looking jobs and applicants for the benchmark and load harnesses.
+ * Skills follow a Zipf distribution over a fixed vocabulary, so a few skills (Java, SQL,
+ * Python) are very common and most are rare, as on real job boards. Years of experience
+ * are skewed towards the junior end. The same seed always yields the same data.
+ */
+public class SyntheticDataset {
+    // Ordered by popularity: the i-th skill is drawn with weight 1 / (i + 1)^SKILL_SKEW
+    private static final String[] SKILLS = {
+        "Java", "SQL", "Python", "Communication", "JavaScript", "Project Management", "Cloud",
+        "Spring", "Excel", "Data Science", "Leadership", "AWS", "Machine Learning", "React",
+        "Strategy", "Budgeting", "Docker", "Kubernetes", "Sales", "Social Media", "Content Creation",
+        "Go", "C++", "Kotlin", "Negotiation", "Product Management", "TypeScript", "Linux",
+        "Statistics", "Marketing Analytics", "Terraform", "Scala", "Rust", "Copywriting", "SEO",
+        "Recruiting", "Accounting", "Figma", "UX Research", "Spark", "Kafka", "GraphQL",
+        "Public Speaking", "Legal Research", "Supply Chain", "Swift", "Ruby", "PHP", "Tableau", "Haskell"
+    };
+    private static final double SKILL_SKEW = 1.1;
+    private static final String[] FIRST_NAMES = {"Alice", "Bob", "Charlie", "David", "Eve", "Farah", "Grace",
+                                                 "Hiro", "Ivan", "Julia", "Kofi", "Lena", "Mateo", "Nadia",
+                                                 "Omar", "Priya", "Quinn", "Rosa", "Sven", "Tara"};
+    private static final String[] LAST_NAMES = {"Smith", "Garcia", "Chen", "Okafor", "Novak", "Silva", "Kim",
+                                                "Muller", "Rossi", "Haddad", "Kowalski", "Tanaka", "Dubois"};
+    private static final String[] JOB_TITLES = {"Software Engineer", "Senior Software Engineer", "Data Science Lead",
+                                                "Marketing Manager", "Product Manager", "Sales Executive",
+                                                "Platform Engineer", "Recruiter", "Financial Analyst"};
+    private static final String[] DEPARTMENTS = {"Engineering", "Engineering", "Data", "Marketing", "Product",
+                                                 "Sales", "Engineering", "People", "Finance"};
+    private static final String[] SPECIALTIES = {"Backend Development", "Frontend Development", "Data Science",
+                                                 "Infrastructure", "Mobile"};
+    private static final String[] FIELDS_OF_STUDY = {"Business", "Communications", "Economics", "Law", "Psychology"};
+    private static final String[] LOCATIONS = {"New York", "London", "Berlin", "Singapore", "Remote"};
+
+    private SplittableRandom random;
+    private double[] skillCdf;
+    private int applicantCount;
+
+    public SyntheticDataset(long seed) {
+        this.random = new SplittableRandom(seed);
+        this.skillCdf = new double[SKILLS.length];
+        double total = 0;
+        for (int i = 0; i < SKILLS.length; i++) {
+            total += 1 / Math.pow(i + 1, SKILL_SKEW);
+            this.skillCdf[i] = total;
+        }
+        for (int i = 0; i < SKILLS.length; i++) {
+            this.skillCdf[i] /= total;
+        }
+    }
+
+    /**
+     * Returns a new applicant: about 60% technical, 30% non-technical and 10% plain,
+     * with 2 to 8 distinct skills.
+     */
+    public Applicant nextApplicant() {
+        int n = applicantCount++;
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String name = first + " " + last;
+        String email = first.toLowerCase() + "." + last.toLowerCase() + n + "@example.com";
+        // Geometric with a mean of about 6 years, capped at 40
+        int years = Math.min(40, (int) (Math.log(1 - random.nextDouble()) / Math.log(5.0 / 6.0)));
+        int skillCount = 2 + random.nextInt(7);
+        List<String> skills = new ArrayList<>(skillCount);
+        while (skills.size() < skillCount) {
+            String skill = nextSkill();
+            if (!skills.contains(skill)) {
+                skills.add(skill);
+            }
+        }
+        int kind = random.nextInt(10);
+        if (kind < 6) {
+            return new TechApplicant(name, email, years, skills, SPECIALTIES[random.nextInt(SPECIALTIES.length)]);
+        } else if (kind < 9) {
+            return new NonTechApplicant(name, email, years, skills, FIELDS_OF_STUDY[random.nextInt(FIELDS_OF_STUDY.length)]);
+        }
+        return new Applicant(name, email, years, skills);
+    }
+
+    public Job nextJob() {
+        int title = random.nextInt(JOB_TITLES.length);
+        return new Job(JOB_TITLES[title], DEPARTMENTS[title], LOCATIONS[random.nextInt(LOCATIONS.length)]);
+    }
+
+    /**
+     * Draws a skill with the same popularity skew as applicant profiles.
+     */
+    public String nextSkill() {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = skillCdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (skillCdf[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return SKILLS[low];
+    }
+
+    /**
+     * Returns a short lowercase fragment of a first name, for keyword searches.
+     */
+    public String nextNameFragment() {
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)].toLowerCase();
+        return first.substring(0, Math.min(3, first.length()));
+    }
+
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+}
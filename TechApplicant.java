@@ -1,4 +1,5 @@
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents a specialized technical applicant.
@@ -6,12 +7,28 @@ import java.util.List;
  */
 public class TechApplicant extends Applicant {
     private String specialty;
-    private static int techApplicantCount = 0;
+    private static final AtomicInteger techApplicantCount = new AtomicInteger();
 
     public TechApplicant(String name, String email, int yearsOfExperience, List<String> skills, String specialty) {
         super(name, email, yearsOfExperience, skills);
         this.specialty = specialty;
-        techApplicantCount++;
+        techApplicantCount.incrementAndGet();
+    }
+
+    /**
+     * Recreates a technical applicant with a known ID, e.g. when restoring persisted state.
+     */
+    public TechApplicant(long id, String name, String email, int yearsOfExperience, List<String> skills, String specialty) {
+        this(id, name, email, yearsOfExperience, skills, specialty, true);
+    }
+
+    // A copy read back from a MappedApplicantStore is not counted; see Applicant
+    TechApplicant(long id, String name, String email, int yearsOfExperience, List<String> skills, String specialty, boolean counted) {
+        super(id, name, email, yearsOfExperience, skills, counted);
+        this.specialty = specialty;
+        if (counted) {
+            techApplicantCount.incrementAndGet();
+        }
     }
 
     public String getSpecialty() {
@@ -19,7 +36,7 @@ public class TechApplicant extends Applicant {
     }
 
     public static int getTechApplicantCount() {
-        return techApplicantCount;
+        return techApplicantCount.get();
     }
 
     /**
@@ -0,0 +1,194 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Substring index over one text field of the applicants (e.g. name or email).
+ * Values are lowercased once when they are added; each three-character window maps
+ * to the ordinals containing it. A query intersects the postings of its trigrams
+ * and only verifies the surviving candidates.
+ *
+ * By default the index keeps the lowercased values for that verification. Given a
+ * source of the values instead, e.g. a {@link MappedApplicantStore} column, it keeps only
+ * the postings and reads a value back when it verifies or replaces it.
+ */
+public class TrigramIndex {
+    private static final int[] NONE = new int[0];
+
+    private Map<Long, OrdinalList> postings;
+    // Null when values are read from the source
+    private List<String> lowercaseByOrdinal;
+    private IntFunction<String> values;
+    private int size;
+
+    public TrigramIndex() {
+        this.postings = new HashMap<>();
+        this.lowercaseByOrdinal = new ArrayList<>();
+    }
+
+    /**
+     * Creates an index that reads values back from their source instead of copying them.
+     * @param values The current value of an ordinal; an update must be indexed before the
+     *               source changes, so the old value can still be read.
+     */
+    public TrigramIndex(IntFunction<String> values) {
+        this.postings = new HashMap<>();
+        this.values = values;
+    }
+
+    /**
+     * Indexes the value of an applicant ordinal.
+     * @param ordinal The applicant ordinal; must be the next ordinal after the last one added.
+     * @param value The field value.
+     */
+    public void add(int ordinal, String value) {
+        String lower = value.toLowerCase();
+        size = Math.max(size, ordinal + 1);
+        if (lowercaseByOrdinal != null) {
+            while (lowercaseByOrdinal.size() <= ordinal) {
+                lowercaseByOrdinal.add("");
+            }
+            lowercaseByOrdinal.set(ordinal, lower);
+        }
+        for (int i = 0; i + 3 <= lower.length(); i++) {
+            postings.computeIfAbsent(trigramAt(lower, i), k -> new OrdinalList()).add(ordinal);
+        }
+    }
+
+    /**
+     * Replaces the indexed value of an existing applicant ordinal.
+     * @param ordinal The applicant ordinal.
+     * @param value The new field value.
+     */
+    public void update(int ordinal, String value) {
+        String old = lowercaseOf(ordinal);
+        for (int i = 0; i + 3 <= old.length(); i++) {
+            OrdinalList posting = postings.get(trigramAt(old, i));
+            if (posting != null) {
+                posting.remove(ordinal);
+            }
+        }
+        String lower = value.toLowerCase();
+        if (lowercaseByOrdinal != null) {
+            lowercaseByOrdinal.set(ordinal, lower);
+        }
+        for (int i = 0; i + 3 <= lower.length(); i++) {
+            postings.computeIfAbsent(trigramAt(lower, i), k -> new OrdinalList()).insert(ordinal);
+        }
+    }
+
+    /**
+     * Returns the ordinals whose value contains the keyword, ignoring case.
+     * @param keyword The substring to look for.
+     * @return A sorted array of ordinals.
+     */
+    public int[] query(String keyword) {
+        String lower = keyword.toLowerCase();
+        if (lower.length() < 3) {
+            // Too short to have a trigram; check the pre-lowercased values directly
+            return scan(lower);
+        }
+        OrdinalList smallest = null;
+        List<OrdinalList> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= lower.length(); i++) {
+            OrdinalList posting = postings.get(trigramAt(lower, i));
+            if (posting == null) {
+                return NONE;
+            }
+            lists.add(posting);
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        int[] candidates = smallest.toArray();
+        if (lower.length() == 3) {
+            return candidates;
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        // Narrow with the next most selective posting, then verify the survivors
+        if (lists.size() > 1) {
+            candidates = OrdinalList.intersect(candidates, lists.get(1).toArray());
+        }
+        int n = 0;
+        for (int ordinal : candidates) {
+            if (lowercaseOf(ordinal).contains(lower)) {
+                candidates[n++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(candidates, n);
+    }
+
+    /**
+     * Returns a lazy cursor over the ordinals whose value contains the keyword, ignoring case.
+     * Every trigram posting is intersected on the fly and the candidates are verified.
+     */
+    public OrdinalCursor cursor(String keyword) {
+        String lower = keyword.toLowerCase();
+        if (lower.length() < 3) {
+            return OrdinalCursor.filter(OrdinalCursor.all(size), ordinal -> lowercaseOf(ordinal).contains(lower));
+        }
+        List<OrdinalCursor> cursors = new ArrayList<>();
+        for (int i = 0; i + 3 <= lower.length(); i++) {
+            OrdinalList posting = postings.get(trigramAt(lower, i));
+            if (posting == null) {
+                return OrdinalCursor.empty();
+            }
+            cursors.add(OrdinalCursor.of(posting));
+        }
+        OrdinalCursor candidates = OrdinalCursor.and(cursors);
+        if (lower.length() == 3) {
+            return candidates;
+        }
+        return OrdinalCursor.filter(candidates, ordinal -> lowercaseOf(ordinal).contains(lower));
+    }
+
+    /**
+     * Returns an upper bound on the number of ordinals whose value contains the keyword:
+     * the size of its rarest trigram, or the number of values if it has no trigram.
+     */
+    public int estimateCount(String keyword) {
+        String lower = keyword.toLowerCase();
+        if (lower.length() < 3) {
+            return size;
+        }
+        int estimate = Integer.MAX_VALUE;
+        for (int i = 0; i + 3 <= lower.length(); i++) {
+            OrdinalList posting = postings.get(trigramAt(lower, i));
+            if (posting == null) {
+                return 0;
+            }
+            estimate = Math.min(estimate, posting.size());
+        }
+        return estimate;
+    }
+
+    /**
+     * Checks whether the value of one ordinal contains a keyword.
+     * @param lowercaseKeyword The keyword, already lowercased.
+     */
+    public boolean contains(int ordinal, String lowercaseKeyword) {
+        return lowercaseOf(ordinal).contains(lowercaseKeyword);
+    }
+
+    private String lowercaseOf(int ordinal) {
+        return lowercaseByOrdinal != null ? lowercaseByOrdinal.get(ordinal) : values.apply(ordinal).toLowerCase();
+    }
+
+    private int[] scan(String lower) {
+        int[] result = new int[size];
+        int n = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if (lowercaseOf(ordinal).contains(lower)) {
+                result[n++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static long trigramAt(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+}
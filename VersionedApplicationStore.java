@@ -0,0 +1,409 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A multi-version copy of the application store, so reports can read a consistent
+ * point-in-time view without job locks and without making intake wait.
+ *
+ * Every write (an accepted application, one job's share of a batch, a stage change, a
+ * rescored chunk) claims the next version number with one atomic increment, as callers of
+ * {@link EventLog} claim a slot, and adds immutable {@link ApplicationVersion}s stamped with
+ * it; nothing is changed in place. A version is committed once it and every version below
+ * it are published. A snapshot reads as of the newest committed version and skips anything
+ * newer. Writers never wait for readers; opening a snapshot only waits for the writes that
+ * were already in flight.
+ *
+ * Each application's versions form a chain, newest first. Versions older than the newest
+ * one that every open snapshot can see are unreachable by any current or future reader, so
+ * the chain is cut there: by writers as they add a version, and by a snapshot as it closes.
+ *
+ * Writes for a job must be made under that job's lock, so its versions are claimed in the
+ * order its writes happen.
+ */
+public class VersionedApplicationStore {
+    // Versions that may be claimed but not yet published at once; writers wait beyond this
+    private static final int RING_SIZE = 1 << 12;
+    private static final int RING_MASK = RING_SIZE - 1;
+    private static final long FULL_PARK_NANOS = 10_000;
+    private static final int SPINS_BEFORE_YIELD = 100;
+    // Applications per task when a snapshot is scanned in parallel
+    private static final int SCAN_CHUNK_SIZE = 4096;
+
+    // The last version handed to a writer
+    private AtomicLong claimed;
+    // published[v & RING_MASK] holds v once the write of version v is complete
+    private AtomicLongArray published;
+    // Every version up to this one is published
+    private AtomicLong committed;
+    // No open or future snapshot reads below this version; it only grows
+    private AtomicLong horizon;
+    private Map<Long, JobVersions> jobs;
+    private AtomicInteger removedJobs;
+    private Set<ApplicationSnapshot> openSnapshots;
+    private AtomicInteger openCount;
+    // Chains that kept older versions for an open snapshot, to cut once it closes
+    private Queue<Chain> retained;
+
+    public VersionedApplicationStore() {
+        this.claimed = new AtomicLong();
+        this.published = new AtomicLongArray(RING_SIZE);
+        this.committed = new AtomicLong();
+        this.horizon = new AtomicLong();
+        this.jobs = new ConcurrentHashMap<>();
+        this.removedJobs = new AtomicInteger();
+        this.openSnapshots = ConcurrentHashMap.newKeySet();
+        this.openCount = new AtomicInteger();
+        this.retained = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Claims the version for a write of several applications. Every version claimed must be
+     * passed to {@link #commit(long)}, also when the write fails, or snapshots wait for it forever.
+     */
+    public long begin() {
+        long version = claimed.incrementAndGet();
+        // The ring slot is reused only once the version it held is committed
+        while (version - committed.get() > RING_SIZE && version - advanceCommitted() > RING_SIZE) {
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        return version;
+    }
+
+    /**
+     * Publishes a write, making it visible to snapshots opened from now on.
+     */
+    public void commit(long version) {
+        published.set((int) (version & RING_MASK), version);
+        long newest = advanceCommitted();
+        // With no snapshot open, nothing older than what is committed now can still be read
+        if (openCount.get() == 0) {
+            raiseHorizon(newest);
+        }
+    }
+
+    /**
+     * Adds a newly accepted application, with its current stage and score, as one write.
+     */
+    public void append(Application application) {
+        long version = begin();
+        try {
+            append(application, version);
+        } finally {
+            commit(version);
+        }
+    }
+
+    /**
+     * Adds a newly accepted application as part of the write with the given version.
+     */
+    public void append(Application application, long version) {
+        long jobId = application.getJob().getId();
+        JobVersions job = jobs.get(jobId);
+        if (job == null || job.removedVersion != 0) {
+            // A job that was removed and comes back starts over; older snapshots keep the removed one
+            job = jobs.compute(jobId, (id, existing) ->
+                    existing == null || existing.removedVersion != 0 ? new JobVersions(version, existing) : existing);
+        }
+        Chain chain = new Chain(new ApplicationVersion(version, application, version, null));
+        application.setVersionChain(chain);
+        job.add(chain);
+    }
+
+    /**
+     * Records the current stage, score and remarks of an application as one write.
+     */
+    public void update(Application application) {
+        long version = begin();
+        try {
+            update(application, version);
+        } finally {
+            commit(version);
+        }
+    }
+
+    /**
+     * Records the current stage, score and remarks of an application as part of the write
+     * with the given version. Does nothing for an application that was never appended.
+     */
+    public void update(Application application, long version) {
+        Chain chain = application.getVersionChain();
+        if (chain == null) {
+            return;
+        }
+        ApplicationVersion previous = chain.head;
+        long stageVersion = previous.getPipelineStage() == application.getPipelineStage()
+                ? previous.getStageVersion() : version;
+        ApplicationVersion latest = new ApplicationVersion(version, application, stageVersion, previous);
+        chain.head = latest;
+        trim(latest);
+        if (latest.getOlder() != null && openCount.get() > 0) {
+            retained.add(chain);
+        }
+    }
+
+    /**
+     * Removes a job's applications from snapshots opened from now on, e.g. once the job has
+     * moved to another shard. Snapshots that are already open still see them.
+     */
+    public void removeJob(long jobId) {
+        JobVersions job = jobs.get(jobId);
+        if (job == null || job.removedVersion != 0) {
+            return;
+        }
+        long version = begin();
+        job.removedVersion = version;
+        commit(version);
+        if (openCount.get() == 0) {
+            jobs.remove(jobId, job);
+        } else {
+            removedJobs.incrementAndGet();
+        }
+    }
+
+    /**
+     * Opens a snapshot as of everything committed when it is opened.
+     * @return The snapshot; close it so the versions only it still reads can be reclaimed.
+     */
+    public ApplicationSnapshot snapshot() {
+        ApplicationSnapshot snapshot = new ApplicationSnapshot(this);
+        // Registered before its version is chosen, so no writer cuts a chain below it meanwhile
+        openCount.incrementAndGet();
+        openSnapshots.add(snapshot);
+        long version = claimed.get();
+        for (int spins = 0; advanceCommitted() < version; spins++) {
+            if (spins < SPINS_BEFORE_YIELD) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        snapshot.pin(version);
+        return snapshot;
+    }
+
+    /**
+     * Returns the newest committed version.
+     */
+    public long getCommittedVersion() {
+        return committed.get();
+    }
+
+    /**
+     * Returns the number of snapshots that are open.
+     */
+    public int getOpenSnapshots() {
+        return openCount.get();
+    }
+
+    void close(ApplicationSnapshot snapshot) {
+        if (openSnapshots.remove(snapshot)) {
+            openCount.decrementAndGet();
+            reclaim();
+        }
+    }
+
+    /**
+     * Raises the horizon to the oldest version an open snapshot reads, then cuts the chains
+     * and drops the removed jobs that no snapshot needs any more.
+     */
+    private void reclaim() {
+        long oldest = advanceCommitted();
+        for (ApplicationSnapshot open : openSnapshots) {
+            // A snapshot still being opened reads 0 here, which holds the horizon where it is
+            oldest = Math.min(oldest, open.getPinnedVersion());
+        }
+        raiseHorizon(oldest);
+
+        for (int pending = retained.size(); pending > 0; pending--) {
+            Chain chain = retained.poll();
+            if (chain == null) {
+                break;
+            }
+            ApplicationVersion head = chain.head;
+            trim(head);
+            if (head.getOlder() != null && openCount.get() > 0) {
+                retained.add(chain);
+            }
+        }
+
+        if (removedJobs.get() > 0) {
+            long visible = horizon.get();
+            for (Map.Entry<Long, JobVersions> entry : jobs.entrySet()) {
+                JobVersions job = entry.getValue();
+                JobVersions previous = job.previous;
+                if (previous != null && previous.removedVersion <= visible) {
+                    job.previous = null;
+                    removedJobs.decrementAndGet();
+                }
+                if (job.removedVersion != 0 && job.removedVersion <= visible && jobs.remove(entry.getKey(), job)) {
+                    removedJobs.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Cuts a chain below the newest version that every open and future snapshot can see.
+     */
+    private void trim(ApplicationVersion newest) {
+        long oldest = horizon.get();
+        ApplicationVersion current = newest;
+        while (current != null && current.getVersion() > oldest) {
+            current = current.getOlder();
+        }
+        if (current != null) {
+            current.setOlder(null);
+        }
+    }
+
+    private void raiseHorizon(long version) {
+        if (version > horizon.get()) {
+            horizon.accumulateAndGet(version, Math::max);
+        }
+    }
+
+    /**
+     * Moves the committed version past every version published in sequence after it.
+     * @return The committed version.
+     */
+    private long advanceCommitted() {
+        long current = committed.get();
+        while (true) {
+            long next = current + 1;
+            if (published.get((int) (next & RING_MASK)) != next) {
+                return current;
+            }
+            if (committed.compareAndSet(current, next)) {
+                current = next;
+            } else {
+                current = committed.get();
+            }
+        }
+    }
+
+    // --- Reads as of a snapshot version ---
+
+    /**
+     * Returns a job's applications as of a version, in submission order.
+     */
+    List<ApplicationVersion> applicationsForJob(long jobId, long version) {
+        JobVersions job = visibleJob(jobs.get(jobId), version);
+        if (job == null) {
+            return new ArrayList<>();
+        }
+        int size = job.size;
+        Chain[] chains = job.chains;
+        List<ApplicationVersion> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ApplicationVersion visible = chains[i].head.asOf(version);
+            if (visible != null) {
+                result.add(visible);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Streams every application as of a version. A parallel stream splits the scan into
+     * chunks of a few thousand applications.
+     */
+    Stream<ApplicationVersion> stream(long version, boolean parallel) {
+        List<ChainRange> ranges = new ArrayList<>();
+        for (JobVersions latest : jobs.values()) {
+            JobVersions job = visibleJob(latest, version);
+            if (job == null) {
+                continue;
+            }
+            int size = job.size;
+            Chain[] chains = job.chains;
+            for (int from = 0; from < size; from += SCAN_CHUNK_SIZE) {
+                ranges.add(new ChainRange(chains, from, Math.min(size, from + SCAN_CHUNK_SIZE)));
+            }
+        }
+        Stream<ChainRange> scan = parallel ? ranges.parallelStream() : ranges.stream();
+        return scan.flatMap(range -> range.asOf(version));
+    }
+
+    /**
+     * Returns the incarnation of a job that a snapshot at a version sees, or null.
+     */
+    private static JobVersions visibleJob(JobVersions job, long version) {
+        while (job != null && job.createdVersion > version) {
+            job = job.previous;
+        }
+        if (job == null || (job.removedVersion != 0 && job.removedVersion <= version)) {
+            return null;
+        }
+        return job;
+    }
+
+    /**
+     * The version chain of one application, newest first.
+     */
+    static class Chain {
+        private volatile ApplicationVersion head;
+
+        Chain(ApplicationVersion head) {
+            this.head = head;
+        }
+    }
+
+    /**
+     * One job's chains in submission order. Appends hold the job lock; readers take size
+     * first, then the array, which is replaced by a larger copy before size grows past it.
+     */
+    private static class JobVersions {
+        private final long createdVersion;
+        // The removed incarnation of the same job, for snapshots older than this one
+        private volatile JobVersions previous;
+        private volatile Chain[] chains;
+        private volatile int size;
+        // 0 while the job is live
+        private volatile long removedVersion;
+
+        JobVersions(long createdVersion, JobVersions previous) {
+            this.createdVersion = createdVersion;
+            this.previous = previous;
+            this.chains = new Chain[8];
+        }
+
+        void add(Chain chain) {
+            Chain[] current = chains;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                chains = current;
+            }
+            current[size] = chain;
+            size = size + 1;
+        }
+    }
+
+    private static class ChainRange {
+        private final Chain[] chains;
+        private final int from;
+        private final int to;
+
+        ChainRange(Chain[] chains, int from, int to) {
+            this.chains = chains;
+            this.from = from;
+            this.to = to;
+        }
+
+        Stream<ApplicationVersion> asOf(long version) {
+            return IntStream.range(from, to).mapToObj(i -> chains[i].head.asOf(version)).filter(Objects::nonNull);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary log of service mutations, split into numbered segment files.
+ *
+ * Each record is framed as [int length][int crc32][byte type][payload]. Appending only
+ * queues the frame; a single flusher thread writes everything queued so far through a
+ * FileChannel and forces it to disk once, so concurrent writers share the cost of each
+ * fsync (group commit). Callers that need durability wait on the sequence number that
+ * {@link #append} returned.
+ */
+public class WriteAheadLog implements AutoCloseable {
+    /**
+     * A record read back from a segment.
+     */
+    public interface RecordHandler {
+        void handle(byte type, byte[] payload) throws IOException;
+    }
+
+    private static final int FRAME_HEADER_BYTES = 4 + 4 + 1;
+    // Anything larger is treated as a corrupt length field
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    private Path directory;
+    private FileChannel channel;
+    private long segment;
+
+    private ReentrantLock lock;
+    private Condition workAvailable;
+    private Condition progress;
+    private List<ByteBuffer> pending;
+    private long appendedSeq;
+    private long durableSeq;
+    private boolean rotateRequested;
+    private boolean closed;
+    private IOException failure;
+    private Thread flusher;
+
+    // Statistics, guarded by lock
+    private long recordsWritten;
+    private long bytesWritten;
+    private long commitBatches;
+
+    public WriteAheadLog(Path directory, long segment) throws IOException {
+        this.directory = directory;
+        this.segment = segment;
+        this.channel = openSegment(directory, segment);
+        this.lock = new ReentrantLock();
+        this.workAvailable = lock.newCondition();
+        this.progress = lock.newCondition();
+        this.pending = new ArrayList<>();
+        this.flusher = new Thread(this::flushLoop, "ats-wal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues a record for writing.
+     * @param type The record type.
+     * @param payload The encoded record body.
+     * @return The sequence number to pass to {@link #awaitDurable(long)}.
+     */
+    public long append(byte type, byte[] payload) {
+        ByteBuffer frame = frame(type, payload);
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            pending.add(frame);
+            workAvailable.signal();
+            return ++appendedSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the record with the given sequence number has been forced to disk.
+     * @param seq A sequence number returned by {@link #append}; 0 returns immediately.
+     */
+    public void awaitDurable(long seq) {
+        lock.lock();
+        try {
+            while (durableSeq < seq && failure == null) {
+                progress.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Write-ahead log failed", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes out everything queued so far, closes the current segment and starts a new one.
+     * Every record appended before this call returns is in an earlier segment.
+     * @return The number of the new segment.
+     */
+    public long rotate() {
+        lock.lock();
+        try {
+            rotateRequested = true;
+            workAvailable.signal();
+            while (rotateRequested && failure == null) {
+                progress.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Write-ahead log failed", failure);
+            }
+            return segment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRecordsWritten() {
+        lock.lock();
+        try {
+            return this.recordsWritten;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBytesWritten() {
+        lock.lock();
+        try {
+            return this.bytesWritten;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCommitBatches() {
+        lock.lock();
+        try {
+            return this.commitBatches;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes anything still queued and closes the current segment.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<ByteBuffer> batch;
+            long batchSeq;
+            boolean rotate;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !rotateRequested && !closed) {
+                    workAvailable.awaitUninterruptibly();
+                }
+                if (pending.isEmpty() && !rotateRequested && closed) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+                batchSeq = appendedSeq;
+                rotate = rotateRequested;
+            } finally {
+                lock.unlock();
+            }
+
+            // Only this thread touches the channel, so IO happens outside the lock
+            long bytes = 0;
+            try {
+                if (!batch.isEmpty()) {
+                    ByteBuffer[] buffers = batch.toArray(new ByteBuffer[0]);
+                    for (ByteBuffer buffer : buffers) {
+                        bytes += buffer.remaining();
+                    }
+                    long remaining = bytes;
+                    while (remaining > 0) {
+                        remaining -= channel.write(buffers);
+                    }
+                    channel.force(false);
+                }
+                if (rotate) {
+                    channel.close();
+                    channel = openSegment(directory, segment + 1);
+                }
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    failure = e;
+                    closed = true;
+                    progress.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+
+            lock.lock();
+            try {
+                durableSeq = batchSeq;
+                if (!batch.isEmpty()) {
+                    recordsWritten += batch.size();
+                    bytesWritten += bytes;
+                    commitBatches++;
+                }
+                if (rotate) {
+                    segment++;
+                    rotateRequested = false;
+                }
+                progress.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Reads the records of a segment in order, stopping quietly at a torn or corrupt tail.
+     * @param file The segment file.
+     * @param handler Receives each record.
+     * @return The number of records read.
+     */
+    public static long readSegment(Path file, RecordHandler handler) throws IOException {
+        long count = 0;
+        try (InputStream in = Files.newInputStream(file);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16))) {
+            while (true) {
+                int length;
+                int expectedCrc;
+                byte[] body;
+                try {
+                    length = data.readInt();
+                    expectedCrc = data.readInt();
+                    if (length < 1 || length > MAX_RECORD_BYTES) {
+                        break;
+                    }
+                    body = new byte[length];
+                    data.readFully(body);
+                } catch (EOFException e) {
+                    break;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                if ((int) crc.getValue() != expectedCrc) {
+                    break;
+                }
+                byte[] payload = new byte[length - 1];
+                System.arraycopy(body, 1, payload, 0, payload.length);
+                handler.handle(body[0], payload);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Encodes a record into its on-disk frame. Snapshots use the same framing.
+     * @param type The record type.
+     * @param payload The encoded record body.
+     * @return A buffer ready to be written.
+     */
+    public static ByteBuffer frame(byte type, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + payload.length);
+        frame.putInt(payload.length + 1).putInt((int) crc.getValue()).put(type).put(payload).flip();
+        return frame;
+    }
+
+    public static String segmentFileName(long segment) {
+        return String.format("wal-%016d.log", segment);
+    }
+
+    private static FileChannel openSegment(Path directory, long segment) throws IOException {
+        return FileChannel.open(directory.resolve(segmentFileName(segment)),
+                                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,142 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Builds the synthetic data the JMH benchmarks in {@code ats.jmh} run over and hands them
+ * each operation under test, by name. JMH only accepts benchmark classes in a named
+ * package, and those cannot refer to classes in the default package, so they load this
+ * class by name and call the operations through {@link IntToLongFunction}.
+ *
+ * An operation takes a running call number and picks its inputs from arrays drawn up
+ * front with it, so random number generation is not part of the timing. It returns a
+ * value derived from the call's result, such as the number of applicants found, for the
+ * benchmark to hand to a JMH blackhole.
+ */
+public class ATSBenchmarkFixture {
+    private static final int JOBS = 50;
+    private static final int INPUTS = 4096;
+    private static final int INPUT_MASK = INPUTS - 1;
+
+    /**
+     * Returns the scoring operations, TechApplicant.evaluate and NonTechApplicant.evaluate.
+     */
+    public static Map<String, IntToLongFunction> evaluateOperations() {
+        SyntheticDataset data = new SyntheticDataset(1);
+        Job[] jobs = new Job[INPUTS];
+        TechApplicant[] tech = new TechApplicant[INPUTS];
+        NonTechApplicant[] nonTech = new NonTechApplicant[INPUTS];
+        int techCount = 0;
+        int nonTechCount = 0;
+        for (int i = 0; i < INPUTS; i++) {
+            jobs[i] = data.nextJob();
+        }
+        while (techCount < INPUTS || nonTechCount < INPUTS) {
+            Applicant applicant = data.nextApplicant();
+            if (applicant instanceof TechApplicant && techCount < INPUTS) {
+                tech[techCount++] = (TechApplicant) applicant;
+            } else if (applicant instanceof NonTechApplicant && nonTechCount < INPUTS) {
+                nonTech[nonTechCount++] = (NonTechApplicant) applicant;
+            }
+        }
+        Map<String, IntToLongFunction> operations = new HashMap<>();
+        operations.put("techEvaluate", i -> tech[i & INPUT_MASK].evaluate(jobs[(i >>> 3) & INPUT_MASK]));
+        operations.put("nonTechEvaluate", i -> nonTech[i & INPUT_MASK].evaluate(jobs[(i >>> 3) & INPUT_MASK]));
+        return operations;
+    }
+
+    /**
+     * Loads a service with a synthetic dataset and returns the operations on it.
+     * @param size The number of applicants; each applies to one of 50 jobs, and the first
+     *             job gets a fifth of them to rank.
+     */
+    public static Map<String, IntToLongFunction> serviceOperations(int size) {
+        SyntheticDataset data = new SyntheticDataset(size);
+        EventLog events = new EventLog(lines -> { });
+        events.setQuiet(true);
+        ATSService service = new ATSService(events);
+
+        List<Job> jobs = new ArrayList<>(JOBS);
+        for (int j = 0; j < JOBS; j++) {
+            Job job = data.nextJob();
+            service.postJob(job);
+            jobs.add(job);
+        }
+        List<Applicant> applicants = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Applicant applicant = data.nextApplicant();
+            service.addApplicant(applicant);
+            applicants.add(applicant);
+        }
+        List<Application> applications = new ArrayList<>(size);
+        List<ApplicantJobPair> pairs = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Job job = data.nextInt(5) == 0 ? jobs.get(0) : jobs.get(data.nextInt(JOBS));
+            pairs.add(new ApplicantJobPair(applicants.get(i), job));
+            if (pairs.size() == 100_000 || i == size - 1) {
+                applications.addAll(service.acceptApplications(pairs));
+                pairs.clear();
+            }
+        }
+
+        String rankedJobId = jobs.get(0).getJobId();
+        String[] skills = new String[INPUTS];
+        String[] secondSkills = new String[INPUTS];
+        String[] fragments = new String[INPUTS];
+        int[] years = new int[INPUTS];
+        String[] jobIds = new String[INPUTS];
+        Applicant[] candidates = new Applicant[INPUTS];
+        Job[] targets = new Job[INPUTS];
+        Application[] existingApplications = new Application[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            skills[i] = data.nextSkill();
+            secondSkills[i] = data.nextSkill();
+            fragments[i] = data.nextNameFragment();
+            years[i] = data.nextInt(15);
+            jobIds[i] = jobs.get(data.nextInt(JOBS)).getJobId();
+            candidates[i] = applicants.get(data.nextInt(size));
+            targets[i] = jobs.get(data.nextInt(JOBS));
+            existingApplications[i] = applications.get(data.nextInt(size));
+        }
+        String[] stages = {"Screening", "Interview", "Offer"};
+
+        Map<String, IntToLongFunction> operations = new HashMap<>();
+        operations.put("searchBySkill", i -> service.searchApplicants(skills[i & INPUT_MASK]).size());
+        operations.put("searchWithAllSkills",
+                i -> service.searchApplicantsWithAllSkills(List.of(skills[i & INPUT_MASK], secondSkills[i & INPUT_MASK])).size());
+        operations.put("searchWithAnySkill",
+                i -> service.searchApplicantsWithAnySkill(List.of(skills[i & INPUT_MASK], secondSkills[i & INPUT_MASK])).size());
+        operations.put("searchByMinYears", i -> service.searchApplicants(years[i & INPUT_MASK] + 10).size());
+        operations.put("searchByYearRange",
+                i -> service.searchApplicants(years[i & INPUT_MASK], years[i & INPUT_MASK] + 2).size());
+        operations.put("searchBySkillAndMinYears",
+                i -> service.searchApplicants(skills[i & INPUT_MASK], years[i & INPUT_MASK]).size());
+        operations.put("searchByName", i -> service.searchApplicants(fragments[i & INPUT_MASK], "name").size());
+        operations.put("searchByEmail", i -> service.searchApplicants(fragments[i & INPUT_MASK], "email").size());
+        operations.put("rankByScore", i -> service.rankByScore(rankedJobId).size());
+        operations.put("topK", i -> service.topK(jobIds[i & INPUT_MASK], 10).size());
+        // Prints to System.out; the benchmark discards it for the whole run
+        operations.put("printJobPipeline", i -> {
+            service.printJobPipeline(jobIds[i & INPUT_MASK]);
+            return i;
+        });
+        operations.put("advanceStage", i -> {
+            service.advanceStage(existingApplications[i & INPUT_MASK].getApplicationId(), stages[i % stages.length]);
+            return i;
+        });
+        operations.put("acceptDuplicateApplication", i -> {
+            Application existing = existingApplications[i & INPUT_MASK];
+            return service.acceptApplication(existing.getApplicant(), existing.getJob()) ? 1 : 0;
+        });
+        // A fresh applicant per call, so every application is new and takes the full intake path
+        operations.put("acceptApplication", i -> {
+            Applicant template = candidates[i & INPUT_MASK];
+            Applicant applicant = new Applicant(template.getName(), template.getEmail(),
+                                                template.getYearsOfExperience(), template.getSkills());
+            return service.acceptApplication(applicant, targets[(i >>> 3) & INPUT_MASK]) ? 1 : 0;
+        });
+        return operations;
+    }
+}
@@ -0,0 +1,46 @@
+package ats.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntToLongFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Scores synthetic applicants against synthetic jobs, without a service around them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluateBenchmark {
+    private IntToLongFunction operation;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) {
+        operation = Fixtures.operationFor(Fixtures.evaluateOperations(), params.getBenchmark());
+    }
+
+    @Benchmark
+    public void techEvaluate(Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+
+    @Benchmark
+    public void nonTechEvaluate(Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+}
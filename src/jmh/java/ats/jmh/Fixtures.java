@@ -0,0 +1,44 @@
+package ats.jmh;
+
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Reaches ATSBenchmarkFixture, which lives in the default package with the service.
+ */
+final class Fixtures {
+    private static final String FIXTURE = "ATSBenchmarkFixture";
+
+    private Fixtures() {
+    }
+
+    static Map<String, IntToLongFunction> evaluateOperations() {
+        return call("evaluateOperations", new Class<?>[0]);
+    }
+
+    static Map<String, IntToLongFunction> serviceOperations(int applicants) {
+        return call("serviceOperations", new Class<?>[] {int.class}, applicants);
+    }
+
+    /**
+     * Picks the operation a benchmark method measures: the one named like the method.
+     * @param benchmark The benchmark's fully qualified method name, as JMH reports it.
+     */
+    static IntToLongFunction operationFor(Map<String, IntToLongFunction> operations, String benchmark) {
+        String name = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+        IntToLongFunction operation = operations.get(name);
+        if (operation == null) {
+            throw new IllegalStateException("The fixture has no operation " + name);
+        }
+        return operation;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, IntToLongFunction> call(String method, Class<?>[] types, Object... args) {
+        try {
+            return (Map<String, IntToLongFunction>) Class.forName(FIXTURE).getMethod(method, types).invoke(null, args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not load the benchmark fixture", e);
+        }
+    }
+}
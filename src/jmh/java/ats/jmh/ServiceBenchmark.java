@@ -0,0 +1,138 @@
+package ats.jmh;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntToLongFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The ATSService hot paths on a service loaded with a synthetic dataset. Every benchmark
+ * runs in its own fork on a freshly loaded service, so the ones that change the data do
+ * not affect the others.
+ *
+ * The datasets run from 1,000 to 10,000,000 applicants. Each fork gets a 16 GB heap,
+ * which the largest needs; pick fewer sizes with -p applicants=1000,10000 on a smaller
+ * machine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class ServiceBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int applicants;
+
+    private IntToLongFunction operation;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) {
+        operation = Fixtures.operationFor(Fixtures.serviceOperations(applicants), params.getBenchmark());
+    }
+
+    /**
+     * Silences System.out for the benchmarks that print.
+     */
+    @State(Scope.Benchmark)
+    public static class DiscardedOutput {
+        private PrintStream console;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            console = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            System.setOut(console);
+        }
+    }
+
+    @Benchmark
+    public void searchBySkill(Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+
+    @Benchmark
+    public void searchWithAllSkills(Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+
+    @Benchmark
+    public void searchWithAnySkill(Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+
+    @Benchmark
+    public void searchByMinYears(Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+
+    @Benchmark
+    public void searchByYearRange(Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+
+    @Benchmark
+    public void searchBySkillAndMinYears(Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+
+    @Benchmark
+    public void searchByName(Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+
+    @Benchmark
+    public void searchByEmail(Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+
+    @Benchmark
+    public void rankByScore(Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+
+    @Benchmark
+    public void topK(Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+
+    @Benchmark
+    public void printJobPipeline(DiscardedOutput output, Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+
+    @Benchmark
+    public void advanceStage(Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+
+    @Benchmark
+    public void acceptDuplicateApplication(Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+
+    @Benchmark
+    public void acceptApplication(Blackhole blackhole) {
+        blackhole.consume(operation.applyAsLong(next++));
+    }
+}